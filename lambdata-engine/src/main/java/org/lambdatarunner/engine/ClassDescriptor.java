@@ -0,0 +1,80 @@
+package org.lambdatarunner.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Ignore;
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.engine.support.descriptor.AbstractTestDescriptor;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.engine.support.hierarchical.Node;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.MultipleFailureException;
+import org.junit.runners.model.Statement;
+import org.junit.runners.model.TestClass;
+
+/**
+ * A test class run by {@link LambdataTestEngine}. Its before classes are run before any of its tests, and its after
+ * classes after all of them, even if a before class fails.
+ */
+class ClassDescriptor extends AbstractTestDescriptor implements Node<LambdataExecutionContext> {
+    static final String SEGMENT_TYPE = "class";
+
+    private final TestClass testClass;
+
+    ClassDescriptor(UniqueId parentId, TestClass testClass) {
+        super(parentId.append(SEGMENT_TYPE, testClass.getName()), testClass.getJavaClass().getSimpleName(),
+            ClassSource.from(testClass.getJavaClass()));
+        this.testClass = testClass;
+    }
+
+    @Override
+    public Type getType() {
+        return Type.CONTAINER;
+    }
+
+    @Override
+    public ExecutionMode getExecutionMode() {
+        // each class has instances of its own
+        return ExecutionMode.CONCURRENT;
+    }
+
+    @Override
+    public SkipResult shouldBeSkipped(LambdataExecutionContext context) {
+        Ignore ignore = testClass.getJavaClass().getAnnotation(Ignore.class);
+        return ignore == null ? SkipResult.doNotSkip() : SkipResult.skip(ignore.value());
+    }
+
+    @Override
+    public LambdataExecutionContext before(LambdataExecutionContext context) throws Exception {
+        LambdataExecutionContext classContext = context.withInstances(new TestInstances(testClass));
+        for (FrameworkMethod method: testClass.getAnnotatedMethods(BeforeClass.class)) {
+            MethodBlocks.invoke(method, null);
+        }
+        return classContext;
+    }
+
+    @Override
+    public void after(LambdataExecutionContext context) throws Exception {
+        List<Throwable> errors = new ArrayList<>();
+        for (FrameworkMethod method: testClass.getAnnotatedMethods(AfterClass.class)) {
+            try {
+                method.invokeExplosively(null);
+            }
+            catch (Throwable e) {
+                errors.add(e);
+            }
+        }
+        if (context.getInstances() != null) {
+            context.getInstances().close();
+        }
+        MethodBlocks.evaluate(new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                MultipleFailureException.assertEmpty(errors);
+            }
+        });
+    }
+}
@@ -0,0 +1,76 @@
+package org.lambdatarunner.engine;
+
+import org.junit.platform.engine.support.descriptor.AbstractTestDescriptor;
+import org.junit.platform.engine.support.hierarchical.Node;
+import org.junit.runners.model.Statement;
+import org.lambdatarunner.TestSpec;
+
+/**
+ * A single datum of a spec method, registered and run dynamically by its {@link SpecsDescriptor}.
+ */
+class DatumDescriptor extends AbstractTestDescriptor implements Node<LambdataExecutionContext> {
+    static final String SEGMENT_TYPE = "datum";
+
+    private final SpecsDescriptor specs;
+
+    private final int index;
+
+    // the instance and spec to run, unless they are to be looked up by the worker running the datum; released once run
+    private Object test;
+
+    private TestSpec spec;
+
+    DatumDescriptor(SpecsDescriptor specs, int index, String displayName, Object test, TestSpec spec) {
+        super(specs.getUniqueId().append(SEGMENT_TYPE, Integer.toString(index)), displayName,
+            specs.getSource().orElse(null));
+        this.specs = specs;
+        this.index = index;
+        this.test = test;
+        this.spec = spec;
+    }
+
+    @Override
+    public Type getType() {
+        return Type.TEST;
+    }
+
+    @Override
+    public ExecutionMode getExecutionMode() {
+        return specs.isParallel() ? ExecutionMode.CONCURRENT : ExecutionMode.SAME_THREAD;
+    }
+
+    @Override
+    public LambdataExecutionContext execute(LambdataExecutionContext context, DynamicTestExecutor dynamicTestExecutor)
+        throws Exception {
+        TestInstances instances = context.getInstances();
+        Object runTest = test;
+        TestSpec runSpec = spec;
+        test = null;
+        spec = null;
+        try {
+            if (runSpec == null) {
+                runTest = instances.workerTest();
+                runSpec = instances.workerTestSpec(specs.getMethod(), index);
+            }
+            TestSpec invokedSpec = runSpec;
+            Statement invoker = new Statement() {
+                @Override
+                public void evaluate() throws Throwable {
+                    invokedSpec.run();
+                }
+            };
+            Statement statement = MethodBlocks.methodBlock(
+                specs.getTestClass(), specs.getMethod(), runTest, invoker, specs.getWatchdog());
+            if (specs.getFailureLimit() != null) {
+                statement = specs.getFailureLimit().apply(statement);
+            }
+            MethodBlocks.evaluate(statement);
+        }
+        finally {
+            if (specs.isParallel()) {
+                instances.releaseWorkerTestSpec(specs.getMethod(), index);
+            }
+        }
+        return context;
+    }
+}
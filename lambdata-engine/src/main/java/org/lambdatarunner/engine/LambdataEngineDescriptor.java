@@ -0,0 +1,14 @@
+package org.lambdatarunner.engine;
+
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.engine.support.descriptor.EngineDescriptor;
+import org.junit.platform.engine.support.hierarchical.Node;
+
+/**
+ * The root of the tests discovered by {@link LambdataTestEngine}.
+ */
+class LambdataEngineDescriptor extends EngineDescriptor implements Node<LambdataExecutionContext> {
+    LambdataEngineDescriptor(UniqueId uniqueId) {
+        super(uniqueId, "Lambdata");
+    }
+}
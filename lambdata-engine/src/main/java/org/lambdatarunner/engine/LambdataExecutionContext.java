@@ -0,0 +1,26 @@
+package org.lambdatarunner.engine;
+
+import org.junit.platform.engine.support.hierarchical.EngineExecutionContext;
+
+/**
+ * The state passed down the tests run by {@link LambdataTestEngine}: within a test class, its test instances.
+ */
+class LambdataExecutionContext implements EngineExecutionContext {
+    private final TestInstances instances;
+
+    LambdataExecutionContext() {
+        this(null);
+    }
+
+    private LambdataExecutionContext(TestInstances instances) {
+        this.instances = instances;
+    }
+
+    LambdataExecutionContext withInstances(TestInstances instances) {
+        return new LambdataExecutionContext(instances);
+    }
+
+    TestInstances getInstances() {
+        return instances;
+    }
+}
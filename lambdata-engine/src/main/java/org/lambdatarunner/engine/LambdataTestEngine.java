@@ -0,0 +1,217 @@
+package org.lambdatarunner.engine;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.junit.Test;
+import org.junit.internal.AssumptionViolatedException;
+import org.junit.platform.commons.support.ReflectionSupport;
+import org.junit.platform.engine.DiscoveryFilter;
+import org.junit.platform.engine.EngineDiscoveryRequest;
+import org.junit.platform.engine.ExecutionRequest;
+import org.junit.platform.engine.Filter;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.engine.discovery.ClassNameFilter;
+import org.junit.platform.engine.discovery.ClassSelector;
+import org.junit.platform.engine.discovery.ClasspathRootSelector;
+import org.junit.platform.engine.discovery.MethodSelector;
+import org.junit.platform.engine.discovery.PackageNameFilter;
+import org.junit.platform.engine.discovery.PackageSelector;
+import org.junit.platform.engine.discovery.UniqueIdSelector;
+import org.junit.platform.engine.support.config.PrefixedConfigurationParameters;
+import org.junit.platform.engine.support.hierarchical.ForkJoinPoolHierarchicalTestExecutorService;
+import org.junit.platform.engine.support.hierarchical.HierarchicalTestEngine;
+import org.junit.platform.engine.support.hierarchical.HierarchicalTestExecutorService;
+import org.junit.platform.engine.support.hierarchical.SameThreadHierarchicalTestExecutorService;
+import org.junit.platform.engine.support.hierarchical.ThrowableCollector;
+import org.junit.runner.RunWith;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.TestClass;
+import org.lambdatarunner.LambdataRunner;
+import org.lambdatarunner.Parallel;
+import org.lambdatarunner.TestSpecs;
+import org.lambdatarunner.internal.Shard;
+import org.opentest4j.TestAbortedException;
+
+/**
+ * A JUnit Platform test engine running the same test classes as {@link LambdataRunner}: those annotated with
+ * {@code @RunWith(LambdataRunner.class)}. Test methods returning {@link TestSpecs} are containers, whose data are
+ * registered as dynamic tests as they are read from their specs, and run as soon as they are registered, so that lazily
+ * sourced data are never all held in memory, nor read twice. Other test methods are run as ordinary tests.
+ * <p>
+ * Befores, afters, before classes and after classes are run as they are by the runner, as are
+ * {@link org.lambdatarunner.FailFast @FailFast}, {@link org.lambdatarunner.DatumTimeout @DatumTimeout}, and the
+ * expected exceptions and timeouts of {@link Test @Test}; rules are not supported, and the data of
+ * {@link org.lambdatarunner.Batched @Batched} methods are run one at a time. Test suites may be sharded as for the
+ * runner. Data skipped by {@code @FailFast}, and tests whose JUnit 4 assumptions fail, are reported as aborted. To
+ * have these classes run only by this engine, exclude the vintage engine, or exclude them from it.
+ * <p>
+ * If the configuration parameter {@code lambdata.engine.parallel.enabled} is true, tests are run on the platform's
+ * work-stealing fork-join pool, configured by the parameters prefixed with {@code lambdata.engine.parallel.config.}
+ * in the same way as those of the Jupiter engine (for instance, {@code lambdata.engine.parallel.config.strategy}).
+ * Test classes then run concurrently with one another, and the data of classes annotated with
+ * {@link Parallel @Parallel} run concurrently with one another, each worker thread using its own test instance as it
+ * does under the runner; the thread count of {@code @Parallel} is not used.
+ */
+public class LambdataTestEngine extends HierarchicalTestEngine<LambdataExecutionContext> {
+    /**
+     * The id of this engine.
+     */
+    public static final String ENGINE_ID = "lambdata";
+
+    static final String PARALLEL_ENABLED = "lambdata.engine.parallel.enabled";
+
+    static final String PARALLEL_CONFIG_PREFIX = "lambdata.engine.parallel.config.";
+
+    @Override
+    public String getId() {
+        return ENGINE_ID;
+    }
+
+    @Override
+    public TestDescriptor discover(EngineDiscoveryRequest request, UniqueId uniqueId) {
+        LambdataEngineDescriptor engine = new LambdataEngineDescriptor(uniqueId);
+        Predicate<String> classNames = classNamePredicate(request);
+        Selections selections = new Selections();
+
+        request.getSelectorsByType(ClasspathRootSelector.class).forEach(selector ->
+            ReflectionSupport.findAllClassesInClasspathRoot(
+                selector.getClasspathRoot(), LambdataTestEngine::isTestClass, classNames)
+                .forEach(selections::selectClass));
+        request.getSelectorsByType(PackageSelector.class).forEach(selector ->
+            ReflectionSupport.findAllClassesInPackage(
+                selector.getPackageName(), LambdataTestEngine::isTestClass, classNames)
+                .forEach(selections::selectClass));
+        request.getSelectorsByType(ClassSelector.class).stream()
+            .map(ClassSelector::getJavaClass)
+            .filter(LambdataTestEngine::isTestClass)
+            .forEach(selections::selectClass);
+        request.getSelectorsByType(MethodSelector.class).stream()
+            .filter(selector -> isTestClass(selector.getJavaClass()))
+            .forEach(selector -> selections.selectMethod(selector.getJavaClass(), selector.getJavaMethod().getName()));
+        request.getSelectorsByType(UniqueIdSelector.class)
+            .forEach(selector -> selections.select(uniqueId, selector.getUniqueId()));
+
+        Shard shard = Shard.fromSettings();
+        selections.byClass.forEach((testClass, methods) -> {
+            ClassDescriptor classDescriptor = describeClass(engine.getUniqueId(), testClass, methods, shard);
+            if (! classDescriptor.getChildren().isEmpty()) {
+                engine.addChild(classDescriptor);
+            }
+        });
+        return engine;
+    }
+
+    @Override
+    protected HierarchicalTestExecutorService createExecutorService(ExecutionRequest request) {
+        if (request.getConfigurationParameters().getBoolean(PARALLEL_ENABLED).orElse(false)) {
+            return new ForkJoinPoolHierarchicalTestExecutorService(
+                new PrefixedConfigurationParameters(request.getConfigurationParameters(), PARALLEL_CONFIG_PREFIX));
+        }
+        return new SameThreadHierarchicalTestExecutorService();
+    }
+
+    @Override
+    protected LambdataExecutionContext createExecutionContext(ExecutionRequest request) {
+        return new LambdataExecutionContext();
+    }
+
+    @Override
+    protected ThrowableCollector.Factory createThrowableCollectorFactory(ExecutionRequest request) {
+        // data skipped by @FailFast, like tests whose JUnit 4 assumptions fail, throw JUnit 4's
+        // AssumptionViolatedException, which the platform would otherwise report as a failure
+        return () -> new ThrowableCollector(throwable -> throwable instanceof TestAbortedException
+            || throwable instanceof AssumptionViolatedException);
+    }
+
+    /**
+     * Determine whether a class would be run by {@link LambdataRunner}, and so should be run by this engine.
+     */
+    static boolean isTestClass(Class<?> candidate) {
+        RunWith runWith = candidate.getAnnotation(RunWith.class);
+        int modifiers = candidate.getModifiers();
+        return runWith != null && runWith.value() == LambdataRunner.class
+            && Modifier.isPublic(modifiers) && ! Modifier.isAbstract(modifiers)
+            && (candidate.getEnclosingClass() == null || Modifier.isStatic(modifiers));
+    }
+
+    private static ClassDescriptor describeClass(UniqueId parentId, Class<?> javaClass, Set<String> methodNames, Shard shard) {
+        TestClass testClass = new TestClass(javaClass);
+        boolean parallel = javaClass.isAnnotationPresent(Parallel.class);
+        ClassDescriptor classDescriptor = new ClassDescriptor(parentId, testClass);
+        for (FrameworkMethod frameworkMethod: testClass.getAnnotatedMethods(Test.class)) {
+            Method method = frameworkMethod.getMethod();
+            boolean specs = TestSpecs.class.isAssignableFrom(method.getReturnType());
+            // the data of spec methods are sharded individually, as they are read
+            if ((methodNames != null && ! methodNames.contains(method.getName()))
+                || (! specs && shard != null && ! shard.contains(javaClass, method))) {
+                continue;
+            }
+            classDescriptor.addChild(specs
+                ? new SpecsDescriptor(classDescriptor.getUniqueId(), testClass, frameworkMethod, parallel, shard)
+                : new MethodDescriptor(classDescriptor.getUniqueId(), testClass, frameworkMethod, parallel));
+        }
+        return classDescriptor;
+    }
+
+    private static Predicate<String> classNamePredicate(EngineDiscoveryRequest request) {
+        List<DiscoveryFilter<String>> filters = new ArrayList<>();
+        filters.addAll(request.getFiltersByType(ClassNameFilter.class));
+        filters.addAll(request.getFiltersByType(PackageNameFilter.class));
+        return Filter.composeFilters(filters).toPredicate();
+    }
+
+    /**
+     * The classes selected, in the order in which they were first selected, each with the names of its selected test
+     * methods, or null if all of them are selected.
+     */
+    private static class Selections {
+        private final Map<Class<?>, Set<String>> byClass = new LinkedHashMap<>();
+
+        void selectClass(Class<?> testClass) {
+            byClass.put(testClass, null);
+        }
+
+        void selectMethod(Class<?> testClass, String methodName) {
+            if (byClass.containsKey(testClass)) {
+                Set<String> methods = byClass.get(testClass);
+                if (methods != null) {
+                    methods.add(methodName);
+                }
+            }
+            else {
+                Set<String> methods = new HashSet<>();
+                methods.add(methodName);
+                byClass.put(testClass, methods);
+            }
+        }
+
+        // selects the class or method identified by a unique id; a datum selects the whole of its method, since
+        // data are only registered as they are run
+        void select(UniqueId engineId, UniqueId uniqueId) {
+            List<UniqueId.Segment> segments = uniqueId.getSegments();
+            if (! uniqueId.hasPrefix(engineId) || segments.size() < 2
+                || ! ClassDescriptor.SEGMENT_TYPE.equals(segments.get(1).getType())) {
+                return;
+            }
+            Class<?> testClass = ReflectionSupport.tryToLoadClass(segments.get(1).getValue()).toOptional().orElse(null);
+            if (testClass == null || ! isTestClass(testClass)) {
+                return;
+            }
+            if (segments.size() == 2) {
+                selectClass(testClass);
+            }
+            else if (MethodDescriptor.SEGMENT_TYPE.equals(segments.get(2).getType())) {
+                selectMethod(testClass, segments.get(2).getValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.lambdatarunner.engine;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.internal.runners.model.ReflectiveCallable;
+import org.junit.internal.runners.statements.ExpectException;
+import org.junit.internal.runners.statements.FailOnTimeout;
+import org.junit.internal.runners.statements.RunAfters;
+import org.junit.internal.runners.statements.RunBefores;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.Statement;
+import org.junit.runners.model.TestClass;
+import org.lambdatarunner.internal.Watchdog;
+
+/**
+ * Builds and evaluates the statements run for each test by {@link LambdataTestEngine}, in the same way as the
+ * method blocks of {@link org.junit.runners.BlockJUnit4ClassRunner}, less rules.
+ */
+final class MethodBlocks {
+    private MethodBlocks() {} // prevent instantiation
+
+    /**
+     * Wrap the invocation of a test in its expected exception and timeout, and in the befores and afters of its
+     * class.
+     * @param watchdog if not null, the watchdog enforcing the timeout of each datum of the test
+     */
+    static Statement methodBlock(TestClass testClass, FrameworkMethod method, Object test, Statement invoker,
+                                 Watchdog watchdog) {
+        Statement statement = invoker;
+        Test annotation = method.getAnnotation(Test.class);
+        if (annotation.expected() != Test.None.class) {
+            statement = new ExpectException(statement, annotation.expected());
+        }
+        if (annotation.timeout() > 0) {
+            statement = new FailOnTimeout(statement, annotation.timeout());
+        }
+        if (watchdog != null) {
+            statement = watchdog.apply(statement);
+        }
+        List<FrameworkMethod> befores = testClass.getAnnotatedMethods(Before.class);
+        if (! befores.isEmpty()) {
+            statement = new RunBefores(statement, befores, test);
+        }
+        List<FrameworkMethod> afters = testClass.getAnnotatedMethods(After.class);
+        if (! afters.isEmpty()) {
+            statement = new RunAfters(statement, afters, test);
+        }
+        return statement;
+    }
+
+    /**
+     * Evaluate a statement, rethrowing anything it throws which is neither an exception nor an error wrapped in a
+     * {@link RuntimeException}, as nodes of the platform may only throw exceptions.
+     */
+    static void evaluate(Statement statement) throws Exception {
+        call(new ReflectiveCallable() {
+            @Override
+            protected Object runReflectiveCall() throws Throwable {
+                statement.evaluate();
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Invoke a method, unwrapping any {@link java.lang.reflect.InvocationTargetException} it throws.
+     */
+    static Object invoke(FrameworkMethod method, Object target) throws Exception {
+        return call(new ReflectiveCallable() {
+            @Override
+            protected Object runReflectiveCall() throws Throwable {
+                return method.invokeExplosively(target);
+            }
+        });
+    }
+
+    /**
+     * Make a reflective call, unwrapping any {@link java.lang.reflect.InvocationTargetException} it throws.
+     */
+    static Object call(ReflectiveCallable callable) throws Exception {
+        try {
+            return callable.run();
+        }
+        catch (Exception | Error e) {
+            throw e;
+        }
+        catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.lambdatarunner.engine;
+
+import org.junit.Ignore;
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.engine.support.descriptor.AbstractTestDescriptor;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.engine.support.hierarchical.Node;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.Statement;
+import org.junit.runners.model.TestClass;
+
+/**
+ * A test method run by {@link LambdataTestEngine} which is not parameterized, run against a new instance of its class.
+ */
+class MethodDescriptor extends AbstractTestDescriptor implements Node<LambdataExecutionContext> {
+    static final String SEGMENT_TYPE = "method";
+
+    private final TestClass testClass;
+
+    private final FrameworkMethod method;
+
+    private final boolean parallel;
+
+    MethodDescriptor(UniqueId parentId, TestClass testClass, FrameworkMethod method, boolean parallel) {
+        super(parentId.append(SEGMENT_TYPE, method.getName()), method.getName(), MethodSource.from(method.getMethod()));
+        this.testClass = testClass;
+        this.method = method;
+        this.parallel = parallel;
+    }
+
+    @Override
+    public Type getType() {
+        return Type.TEST;
+    }
+
+    @Override
+    public ExecutionMode getExecutionMode() {
+        return parallel ? ExecutionMode.CONCURRENT : ExecutionMode.SAME_THREAD;
+    }
+
+    @Override
+    public SkipResult shouldBeSkipped(LambdataExecutionContext context) {
+        Ignore ignore = method.getAnnotation(Ignore.class);
+        return ignore == null ? SkipResult.doNotSkip() : SkipResult.skip(ignore.value());
+    }
+
+    @Override
+    public LambdataExecutionContext execute(LambdataExecutionContext context, DynamicTestExecutor dynamicTestExecutor)
+        throws Exception {
+        Object test = context.getInstances().create();
+        Statement invoker = new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                method.invokeExplosively(test);
+            }
+        };
+        MethodBlocks.evaluate(MethodBlocks.methodBlock(testClass, method, test, invoker, null));
+        return context;
+    }
+}
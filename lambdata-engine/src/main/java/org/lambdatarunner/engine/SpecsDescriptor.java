@@ -0,0 +1,117 @@
+package org.lambdatarunner.engine;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.junit.Ignore;
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.engine.support.descriptor.AbstractTestDescriptor;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.engine.support.hierarchical.Node;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.TestClass;
+import org.lambdatarunner.TestSpec;
+import org.lambdatarunner.TestSpecs;
+import org.lambdatarunner.internal.FailureLimit;
+import org.lambdatarunner.internal.NameTemplate;
+import org.lambdatarunner.internal.Shard;
+import org.lambdatarunner.internal.Watchdog;
+
+/**
+ * A test method run by {@link LambdataTestEngine} which returns {@link TestSpecs}. When run, the method is called,
+ * and each datum of its specs is registered as a dynamic test as it is read, and run straight away: in turn, on the
+ * thread reading the specs, or, in {@link org.lambdatarunner.Parallel @Parallel} classes, on the platform's pool.
+ */
+class SpecsDescriptor extends AbstractTestDescriptor implements Node<LambdataExecutionContext> {
+    private final TestClass testClass;
+
+    private final FrameworkMethod method;
+
+    private final boolean parallel;
+
+    private final Shard shard;
+
+    private final Watchdog watchdog;
+
+    private final FailureLimit failureLimit;
+
+    SpecsDescriptor(UniqueId parentId, TestClass testClass, FrameworkMethod method, boolean parallel, Shard shard) {
+        super(parentId.append(MethodDescriptor.SEGMENT_TYPE, method.getName()), method.getName(),
+            MethodSource.from(method.getMethod()));
+        this.testClass = testClass;
+        this.method = method;
+        this.parallel = parallel;
+        this.shard = shard;
+        watchdog = Watchdog.of(testClass.getJavaClass(), method.getMethod());
+        failureLimit = FailureLimit.of(testClass.getJavaClass(), method.getMethod());
+    }
+
+    @Override
+    public Type getType() {
+        return Type.CONTAINER;
+    }
+
+    @Override
+    public boolean mayRegisterTests() {
+        return true;
+    }
+
+    @Override
+    public ExecutionMode getExecutionMode() {
+        return parallel ? ExecutionMode.CONCURRENT : ExecutionMode.SAME_THREAD;
+    }
+
+    @Override
+    public SkipResult shouldBeSkipped(LambdataExecutionContext context) {
+        Ignore ignore = method.getAnnotation(Ignore.class);
+        return ignore == null ? SkipResult.doNotSkip() : SkipResult.skip(ignore.value());
+    }
+
+    @Override
+    public LambdataExecutionContext execute(LambdataExecutionContext context, DynamicTestExecutor dynamicTestExecutor)
+        throws Exception {
+        NameTemplate names = NameTemplate.of(method.getMethod());
+        Object test = context.getInstances().create();
+        TestSpecs testSpecs = context.getInstances().getTestSpecs(test, method);
+        try (Stream<TestSpec> specs = testSpecs.stream()) {
+            // data keep their position among all the data, whichever shard they fall in, so that it identifies their
+            // spec however it is later looked up
+            Iterator<TestSpec> iterator = specs.iterator();
+            for (int index = 0; iterator.hasNext(); index++) {
+                TestSpec spec = iterator.next();
+                if (shard == null || shard.contains(testClass.getJavaClass(), method.getMethod(), index)) {
+                    // the data of parallel classes are run against the spec of each worker's own test instance
+                    DatumDescriptor datum = parallel
+                        ? new DatumDescriptor(this, index, names.render(spec.getDatum(), index), null, null)
+                        : new DatumDescriptor(this, index, names.render(spec.getDatum(), index), test, spec);
+                    addChild(datum);
+                    dynamicTestExecutor.execute(datum);
+                }
+            }
+        }
+        finally {
+            dynamicTestExecutor.awaitFinished();
+        }
+        return context;
+    }
+
+    TestClass getTestClass() {
+        return testClass;
+    }
+
+    FrameworkMethod getMethod() {
+        return method;
+    }
+
+    boolean isParallel() {
+        return parallel;
+    }
+
+    Watchdog getWatchdog() {
+        return watchdog;
+    }
+
+    FailureLimit getFailureLimit() {
+        return failureLimit;
+    }
+}
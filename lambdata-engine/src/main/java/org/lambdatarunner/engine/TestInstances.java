@@ -0,0 +1,97 @@
+package org.lambdatarunner.engine;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.junit.internal.runners.model.ReflectiveCallable;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.TestClass;
+import org.lambdatarunner.TestSpec;
+import org.lambdatarunner.TestSpecs;
+import org.lambdatarunner.internal.TestSpecCursor;
+
+/**
+ * Creates the instances of a test class run by {@link LambdataTestEngine}, for as long as the class is running. As
+ * under {@link org.lambdatarunner.LambdataRunner}, each test method has an instance of its own, against which every
+ * datum of a spec method is run; in {@link org.lambdatarunner.Parallel @Parallel} classes, each worker thread
+ * instead has an instance of its own, on which spec methods are called again to find the spec of each datum it runs.
+ */
+class TestInstances implements AutoCloseable {
+    private final TestClass testClass;
+
+    private final ThreadLocal<Object> workerTest = new ThreadLocal<>();
+
+    private final ThreadLocal<Map<Method, TestSpecCursor>> workerTestSpecs = ThreadLocal.withInitial(HashMap::new);
+
+    // the worker cursors, to be closed with the class
+    private final Queue<TestSpecCursor> cursors = new ConcurrentLinkedQueue<>();
+
+    TestInstances(TestClass testClass) {
+        this.testClass = testClass;
+    }
+
+    /**
+     * Create a new instance of the test class.
+     */
+    Object create() throws Exception {
+        return MethodBlocks.call(new ReflectiveCallable() {
+            @Override
+            protected Object runReflectiveCall() throws Throwable {
+                return testClass.getOnlyConstructor().newInstance();
+            }
+        });
+    }
+
+    /**
+     * Call a spec method.
+     */
+    TestSpecs getTestSpecs(Object test, FrameworkMethod method) throws Exception {
+        return (TestSpecs) MethodBlocks.invoke(method, test);
+    }
+
+    /**
+     * Get the test instance owned by the current worker thread, creating it if need be.
+     */
+    Object workerTest() throws Exception {
+        Object test = workerTest.get();
+        if (test == null) {
+            test = create();
+            workerTest.set(test);
+        }
+        return test;
+    }
+
+    /**
+     * Get a spec of a method, as returned when called on the test instance owned by the current worker thread.
+     */
+    TestSpec workerTestSpec(FrameworkMethod method, int index) throws Exception {
+        Map<Method, TestSpecCursor> specsByMethod = workerTestSpecs.get();
+        TestSpecCursor specs = specsByMethod.get(method.getMethod());
+        if (specs == null) {
+            specs = TestSpecCursor.of(getTestSpecs(workerTest(), method));
+            cursors.add(specs);
+            specsByMethod.put(method.getMethod(), specs);
+        }
+        return specs.get(index);
+    }
+
+    /**
+     * Release a spec of a method once the current worker thread has run it.
+     */
+    void releaseWorkerTestSpec(FrameworkMethod method, int index) {
+        TestSpecCursor specs = workerTestSpecs.get().get(method.getMethod());
+        if (specs != null) {
+            specs.release(index);
+        }
+    }
+
+    @Override
+    public void close() {
+        for (TestSpecCursor cursor; (cursor = cursors.poll()) != null; ) {
+            cursor.close();
+        }
+    }
+}
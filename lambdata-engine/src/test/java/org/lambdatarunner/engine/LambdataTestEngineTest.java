@@ -0,0 +1,199 @@
+package org.lambdatarunner.engine;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectMethod;
+import static org.lambdatarunner.Lambdata.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.testkit.engine.EngineExecutionResults;
+import org.junit.platform.testkit.engine.EngineTestKit;
+import org.junit.platform.testkit.engine.Event;
+import org.junit.runner.RunWith;
+import org.lambdatarunner.DescribeAs;
+import org.lambdatarunner.FailFast;
+import org.lambdatarunner.LambdataRunner;
+import org.lambdatarunner.Parallel;
+import org.lambdatarunner.TestSpecs;
+
+public class LambdataTestEngineTest {
+    @RunWith(LambdataRunner.class)
+    public static class Specs {
+        @Test
+        @DescribeAs("{0} + {1}")
+        public TestSpecs addition() {
+            return specs(
+                (a, b, expected) -> assertEquals((int) expected, a + b),
+                datum(1, 2, 3),
+                datum(2, 2, 5),
+                datum(28, 14, 42));
+        }
+
+        @Test
+        public void plain() {}
+
+        @Test(expected = IllegalStateException.class)
+        public void expected() {
+            throw new IllegalStateException();
+        }
+
+        @Test
+        @Ignore
+        public TestSpecs ignored() {
+            throw new AssertionError();
+        }
+    }
+
+    @Test
+    public void dataAreDynamicTests() {
+        EngineExecutionResults results = execute(Specs.class, false);
+        results.testEvents().assertStatistics(stats -> stats.dynamicallyRegistered(3).started(5).succeeded(4).failed(1));
+        results.containerEvents().assertStatistics(stats -> stats.skipped(1).failed(0));
+        List<String> names = results.testEvents().started().stream()
+            .map(event -> event.getTestDescriptor().getDisplayName())
+            .collect(Collectors.toList());
+        assertTrue(names.containsAll(Arrays.asList("addition: 1 + 2", "addition: 2 + 2", "addition: 28 + 14")));
+        String failed = results.testEvents().failed().stream()
+            .map(Event::getTestDescriptor)
+            .map(TestDescriptor::getDisplayName)
+            .findFirst().orElse(null);
+        assertEquals("addition: 2 + 2", failed);
+    }
+
+    @RunWith(LambdataRunner.class)
+    public static class LazySpecs {
+        static final AtomicInteger reads = new AtomicInteger();
+
+        static final AtomicInteger befores = new AtomicInteger();
+
+        static final AtomicInteger afters = new AtomicInteger();
+
+        @Before
+        public void before() {
+            befores.incrementAndGet();
+        }
+
+        @After
+        public void after() {
+            afters.incrementAndGet();
+        }
+
+        @Test
+        public TestSpecs squares() {
+            return specs(
+                (i, square) -> assertEquals((long) square, (long) i * i),
+                () -> {
+                    reads.incrementAndGet();
+                    return IntStream.range(0, 100).mapToObj(i -> datum(i, i * i));
+                });
+        }
+    }
+
+    @Test
+    public void lazyDataAreReadOnce() {
+        LazySpecs.reads.set(0);
+        LazySpecs.befores.set(0);
+        LazySpecs.afters.set(0);
+        execute(LazySpecs.class, false).testEvents().assertStatistics(stats -> stats.succeeded(100).failed(0));
+        assertEquals(1, LazySpecs.reads.get());
+        assertEquals(100, LazySpecs.befores.get());
+        assertEquals(100, LazySpecs.afters.get());
+    }
+
+    @Test
+    public void methodSelection() {
+        EngineExecutionResults results = EngineTestKit.engine(new LambdataTestEngine())
+            .selectors(selectMethod(Specs.class, "plain"))
+            .execute();
+        results.testEvents().assertStatistics(stats -> stats.started(1).succeeded(1));
+    }
+
+    @RunWith(LambdataRunner.class)
+    @Parallel
+    public static class ParallelSpecs {
+        static final Set<Object> instances = ConcurrentHashMap.newKeySet();
+
+        private Thread owner;
+
+        @Before
+        public void before() {
+            // each worker has an instance of its own
+            if (owner == null) {
+                owner = Thread.currentThread();
+            }
+            assertSame(owner, Thread.currentThread());
+            instances.add(this);
+        }
+
+        @Test
+        public TestSpecs squares() {
+            return specs(
+                (i, square) -> assertEquals((long) square, (long) i * i),
+                () -> IntStream.range(0, 200).mapToObj(i -> datum(i, i * i)));
+        }
+    }
+
+    @Test
+    public void parallelDataRunOnWorkerInstances() {
+        ParallelSpecs.instances.clear();
+        execute(ParallelSpecs.class, true).testEvents()
+            .assertStatistics(stats -> stats.dynamicallyRegistered(200).succeeded(200).failed(0));
+        assertFalse(ParallelSpecs.instances.isEmpty());
+    }
+
+    @RunWith(LambdataRunner.class)
+    public static class SkippedSpecs {
+        @FailFast(maxFailures = 2)
+        @Test
+        public TestSpecs failFast() {
+            return specs((Integer i) -> fail(), () -> IntStream.range(0, 10).mapToObj(i -> datum(i)));
+        }
+
+        @Test
+        public TestSpecs assumed() {
+            return specs((Integer i) -> assumeTrue(i % 2 == 0), datum(1), datum(2), datum(3));
+        }
+    }
+
+    @Test
+    public void skippedDataAreAborted() {
+        EngineExecutionResults results = execute(SkippedSpecs.class, false);
+        // the data skipped by @FailFast, and those whose JUnit 4 assumptions fail, are aborted rather than failed
+        results.testEvents().assertStatistics(stats -> stats.started(13).failed(2).aborted(10).succeeded(1));
+    }
+
+    @RunWith(LambdataRunner.class)
+    public static class BrokenSpecs {
+        @Test
+        public TestSpecs broken() {
+            throw new IllegalStateException("no data");
+        }
+    }
+
+    @Test
+    public void specMethodFailureFailsContainer() {
+        EngineExecutionResults results = execute(BrokenSpecs.class, false);
+        results.containerEvents().assertStatistics(stats -> stats.failed(1));
+        results.testEvents().assertStatistics(stats -> stats.started(0));
+    }
+
+    private static EngineExecutionResults execute(Class<?> testClass, boolean parallel) {
+        return EngineTestKit.engine(new LambdataTestEngine())
+            .configurationParameter(LambdataTestEngine.PARALLEL_ENABLED, Boolean.toString(parallel))
+            .selectors(selectClass(testClass))
+            .execute();
+    }
+}
@@ -0,0 +1,75 @@
+package org.lambdatarunner;
+
+import static org.lambdatarunner.Lambdata.datum;
+import static org.lambdatarunner.Lambdata.specs;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark state providing equivalent data tables for {@link LambdataRunner} and JUnit's {@link Parameterized}
+ * runner. Because runners instantiate test classes reflectively, the table size is passed to the test classes through
+ * a static field.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkTables {
+
+    @Param({ "10", "10000", "1000000" })
+    public int size;
+
+    static volatile int tableSize;
+
+    @Setup
+    public void setTableSize() {
+        tableSize = size;
+    }
+
+    @RunWith(LambdataRunner.class)
+    public static class LambdataTable {
+        @Test
+        @DescribeAs("{0} + {1}")
+        public TestSpecs testAddition() {
+            List<Datum2<Integer, Integer>> data =
+                IntStream.range(0, tableSize).mapToObj(i -> datum(i, -i)).collect(Collectors.toList());
+            return specs((a, b) -> check(a + b), data);
+        }
+    }
+
+    @RunWith(Parameterized.class)
+    public static class ParameterizedTable {
+        @Parameters(name = "{0} + {1}")
+        public static Collection<Object[]> data() {
+            return IntStream.range(0, tableSize).mapToObj(i -> new Object[] { i, -i }).collect(Collectors.toList());
+        }
+
+        private final int a;
+        private final int b;
+
+        public ParameterizedTable(int a, int b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Test
+        public void testAddition() {
+            check(a + b);
+        }
+    }
+
+    static void check(int sum) {
+        if (sum != 0) {
+            throw new AssertionError(sum);
+        }
+    }
+}
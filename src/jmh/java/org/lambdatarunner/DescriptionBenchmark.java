@@ -0,0 +1,47 @@
+package org.lambdatarunner;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.runner.Description;
+import org.junit.runners.Parameterized;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the cost of describing the tests of an already created runner, the first time they are described. The
+ * spec methods of the lambdata runner are called beforehand, as the {@link Parameterized} runner calls its
+ * parameters method when it is created.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DescriptionBenchmark {
+
+    private LambdataRunner lambdataRunner;
+
+    private Parameterized parameterizedRunner;
+
+    // a runner caches its description, so each invocation needs runners of its own
+    @Setup(Level.Invocation)
+    public void createRunners(BenchmarkTables tables) throws Throwable {
+        lambdataRunner = new LambdataRunner(BenchmarkTables.LambdataTable.class);
+        lambdataRunner.computeTestMethods();
+        parameterizedRunner = new Parameterized(BenchmarkTables.ParameterizedTable.class);
+    }
+
+    @Benchmark
+    public Description lambdataGetDescription() {
+        return lambdataRunner.getDescription();
+    }
+
+    @Benchmark
+    public Description parameterizedBaseline() {
+        return parameterizedRunner.getDescription();
+    }
+}
@@ -0,0 +1,30 @@
+package org.lambdatarunner;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.runners.Parameterized;
+import org.junit.runners.model.FrameworkMethod;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+/**
+ * Measures the cost of creating a runner, which discovers the data of the test class, including calling the spec
+ * methods and naming each datum.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DiscoveryBenchmark {
+
+    @Benchmark
+    public List<FrameworkMethod> lambdataComputeTestMethods(BenchmarkTables tables) throws Exception {
+        return new LambdataRunner(BenchmarkTables.LambdataTable.class).computeTestMethods();
+    }
+
+    @Benchmark
+    public Parameterized parameterizedBaseline(BenchmarkTables tables) throws Throwable {
+        return new Parameterized(BenchmarkTables.ParameterizedTable.class);
+    }
+}
@@ -0,0 +1,55 @@
+package org.lambdatarunner;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.Parameterized;
+import org.junit.runners.model.FrameworkMethod;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the cost of running every datum of a table: once through {@code methodBlock} alone, which isolates the
+ * per-datum statement pipeline, and once through a full run with notifications, compared against
+ * {@link Parameterized}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DispatchBenchmark {
+
+    private LambdataRunner lambdataRunner;
+
+    private List<FrameworkMethod> lambdataMethods;
+
+    // the runs of a method release their data once run, so each invocation needs runs of its own
+    @Setup(Level.Invocation)
+    public void createRunner(BenchmarkTables tables) throws Throwable {
+        lambdataRunner = new LambdataRunner(BenchmarkTables.LambdataTable.class);
+        lambdataMethods = lambdataRunner.computeTestMethods();
+    }
+
+    @Benchmark
+    public void lambdataMethodBlocks() throws Throwable {
+        for (FrameworkMethod method: lambdataMethods) {
+            lambdataRunner.methodBlock(method).evaluate();
+        }
+    }
+
+    @Benchmark
+    public void lambdataFullRun(BenchmarkTables tables) throws Throwable {
+        new LambdataRunner(BenchmarkTables.LambdataTable.class).run(new RunNotifier());
+    }
+
+    @Benchmark
+    public void parameterizedBaseline(BenchmarkTables tables) throws Throwable {
+        new Parameterized(BenchmarkTables.ParameterizedTable.class).run(new RunNotifier());
+    }
+}
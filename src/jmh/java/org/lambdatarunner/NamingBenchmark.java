@@ -0,0 +1,63 @@
+package org.lambdatarunner;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.lambdatarunner.internal.MethodRuns;
+import org.lambdatarunner.internal.NameTemplate;
+import org.lambdatarunner.internal.ParameterizedFrameworkMethod;
+import org.lambdatarunner.internal.TestSpecCursor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the cost of creating a {@link ParameterizedFrameworkMethod} for each datum of a table, and of rendering
+ * its name from the {@link DescribeAs @DescribeAs} pattern.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NamingBenchmark {
+
+    private Method method;
+
+    private Object test;
+
+    private TestSpecCursor cursor;
+
+    private List<TestSpec> specs;
+
+    @Setup
+    public void createSpecs(BenchmarkTables tables) throws Exception {
+        method = BenchmarkTables.LambdataTable.class.getMethod("testAddition");
+        test = new BenchmarkTables.LambdataTable();
+        TestSpecs testSpecs = (TestSpecs) method.invoke(test);
+        cursor = TestSpecCursor.of(testSpecs);
+        specs = testSpecs.getSpecs();
+    }
+
+    @Benchmark
+    public void createParameterizedFrameworkMethods(Blackhole blackhole) {
+        MethodRuns runs = new MethodRuns(method, cursor, test, NameTemplate.of(method));
+        int count = 0;
+        for (TestSpec spec: specs) {
+            blackhole.consume(new ParameterizedFrameworkMethod(method, runs, spec.getDatum(), ++count));
+        }
+    }
+
+    @Benchmark
+    public void describeParameterizedFrameworkMethods(Blackhole blackhole) {
+        MethodRuns runs = new MethodRuns(method, cursor, test, NameTemplate.of(method));
+        int count = 0;
+        for (TestSpec spec: specs) {
+            blackhole.consume(new ParameterizedFrameworkMethod(method, runs, spec.getDatum(), ++count).getDescription());
+        }
+    }
+}
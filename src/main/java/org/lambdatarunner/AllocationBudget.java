@@ -0,0 +1,23 @@
+package org.lambdatarunner;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits the memory each datum of a parameterized test method run by {@link LambdataRunner} may allocate. The bytes
+ * allocated by the thread running the datum are measured around its lambda, excluding the befores and afters, and a
+ * datum which allocates more than the budget fails. Allocations made by other threads on its behalf are not counted.
+ * When placed on a test class, this applies to each parameterized method of the class which is not itself annotated.
+ * <p>
+ * Budgets are only enforced on JVMs which can measure the memory allocated by a thread, such as HotSpot.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface AllocationBudget {
+    /**
+     * @return the number of bytes each datum may allocate
+     */
+    long value();
+}
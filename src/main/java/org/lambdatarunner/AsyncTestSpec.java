@@ -0,0 +1,25 @@
+package org.lambdatarunner;
+
+import java.util.concurrent.CompletionStage;
+
+import org.lambdatarunner.internal.AsyncWindow;
+
+/**
+ * A test spec whose test completes asynchronously, created by the {@code asyncSpecs} methods of {@link Lambdata}.
+ * Run on its own, the test is started and waited for; the data of methods which are {@link Batched#inFlight()
+ * batched in flight} are instead started ahead of time, so that several of them are in progress at once.
+ */
+public interface AsyncTestSpec extends TestSpec {
+    /**
+     * Start the test.
+     * @return a stage which completes when the test does, exceptionally if it fails; may be null if the test has
+     * already completed
+     * @throws Exception if the test fails before returning
+     */
+    CompletionStage<?> start() throws Exception;
+
+    @Override
+    default void run() throws Throwable {
+        AsyncWindow.await(start());
+    }
+}
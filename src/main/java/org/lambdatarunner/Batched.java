@@ -0,0 +1,35 @@
+package org.lambdatarunner;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Indicates that the data of a parameterized test method run by {@link LambdataRunner} should be run in batches. All
+ * of the data in a batch are run within a single pass of the befores, afters and rules of the test class, rather than
+ * one pass per datum. Each datum is still reported individually; a failure in a before or rule is reported against
+ * every datum of the batch which has not yet run, while a failure in an after is reported against the last datum of
+ * the batch.
+ * <p>
+ * This is intended for tables of very cheap tests, where the cost of befores, afters and rules dominates the cost of
+ * the test itself. Such tests must not rely on befores or afters to reset state between data.
+ * <p>
+ * The data of a batch of {@link AsyncTestSpec asynchronous} specs may also be kept in flight together: each datum is
+ * started on a thread of its own (a virtual thread, on JVMs which have them) up to {@link #inFlight()} data ahead of
+ * the one being waited for, while results are still reported one datum at a time, in order. Such tests must be safe
+ * to run concurrently against the same test instance.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Batched {
+    /**
+     * @return the maximum number of data to run in each batch.
+     */
+    int size() default 1000;
+
+    /**
+     * @return the maximum number of asynchronous data of a batch to have in progress at once
+     */
+    int inFlight() default 1;
+}
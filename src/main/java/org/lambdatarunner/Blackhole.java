@@ -0,0 +1,76 @@
+package org.lambdatarunner;
+
+/**
+ * Consumes values computed by the lambdas of {@link Microbenchmark @Microbenchmark} methods, so that the JIT compiler
+ * cannot tell they are unused, and optimize away the code computing them. Consuming a value costs a couple of
+ * comparisons with fields whose values the compiler cannot know, and which it must therefore read, but which never
+ * match, so that nothing is ever written.
+ */
+public final class Blackhole {
+    // the values compared against are held in fields which are not final, so that the compiler must read them; they
+    // are never equal to one another, so no value can match both
+    private static int int1 = 1;
+    private static int int2 = 2;
+    private static long long1 = 1;
+    private static long long2 = 2;
+    private static double double1 = 1;
+    private static double double2 = 2;
+    private static boolean boolean1 = false;
+    private static boolean boolean2 = true;
+    private static Object object = new Object();
+
+    private static volatile Object sink;
+
+    private Blackhole() {
+    }
+
+    /**
+     * Consume an object.
+     * @param value the object
+     */
+    public static void consume(Object value) {
+        if (value == object) {
+            sink = value;
+        }
+    }
+
+    /**
+     * Consume an int.
+     * @param value the int
+     */
+    public static void consume(int value) {
+        if (value == int1 & value == int2) {
+            sink = value;
+        }
+    }
+
+    /**
+     * Consume a long.
+     * @param value the long
+     */
+    public static void consume(long value) {
+        if (value == long1 & value == long2) {
+            sink = value;
+        }
+    }
+
+    /**
+     * Consume a double.
+     * @param value the double
+     */
+    public static void consume(double value) {
+        if (value == double1 & value == double2) {
+            sink = value;
+        }
+    }
+
+    /**
+     * Consume a boolean.
+     * @param value the boolean
+     */
+    public static void consume(boolean value) {
+        if (value == boolean1 & value == boolean2) {
+            sink = value;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.lambdatarunner;
+
+/**
+ * Converts a field read from a {@link DataSource} to the type expected by a test. Method references to parse methods,
+ * such as {@code Integer::valueOf} or {@code LocalDate::parse}, are typical converters.
+ * @param <T> the type converted to
+ */
+@FunctionalInterface
+public interface Converter<T> {
+    /**
+     * Convert a field.
+     * @param value the text of the field, or null for a JSON null or a missing JSON field
+     * @return the converted value
+     * @throws Exception if the field cannot be converted
+     */
+    T convert(String value) throws Exception;
+}
@@ -0,0 +1,162 @@
+package org.lambdatarunner;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.lambdatarunner.internal.CsvReader;
+import org.lambdatarunner.internal.JsonLinesReader;
+
+/**
+ * A file of test data, in CSV or JSON lines format, which is read through memory mapping and parsed a row at a time as
+ * it is streamed, so that even very large tables cost little to open and are never held in memory. A data source is
+ * turned into data for {@code specs} by {@code Lambdata.datums}, which converts the fields of each row with a
+ * {@link Converter} for each element of the datum:
+ * <pre>
+ * return specs((a, b, sum) -&gt; assertEquals(sum, a + b),
+ *     datums(DataSource.csv(Paths.get("sums.csv")).withHeader(), Integer::valueOf, Integer::valueOf, Integer::valueOf));
+ * </pre>
+ * Files are expected to be encoded in UTF-8. Data sources are immutable.
+ */
+public final class DataSource {
+    private enum Format { CSV, JSON_LINES }
+
+    private final Path file;
+
+    private final Format format;
+
+    private final char separator;
+
+    private final boolean header;
+
+    private final List<String> fieldNames;
+
+    private DataSource(Path file, Format format, char separator, boolean header, List<String> fieldNames) {
+        this.file = file;
+        this.format = format;
+        this.separator = separator;
+        this.header = header;
+        this.fieldNames = fieldNames;
+    }
+
+    /**
+     * Create a source of data from a CSV file, as described by RFC 4180, whose fields are separated by commas.
+     * @param file the file
+     * @return a data source
+     */
+    public static DataSource csv(Path file) {
+        return new DataSource(file, Format.CSV, ',', false, Collections.emptyList());
+    }
+
+    /**
+     * Create a source of data from a JSON lines file, in which each line is a JSON object or array. The fields of each
+     * row are the members of an object with the given names, in order, or the elements of an array; if no names are
+     * given, the fields are the members of an object in the order they appear. Strings are unescaped, other scalar
+     * values are given as their JSON text, null and missing members are given as null, and nested objects and arrays
+     * are given as their JSON text.
+     * @param file the file
+     * @param fieldNames the names of the members of each object to read
+     * @return a data source
+     */
+    public static DataSource jsonLines(Path file, String... fieldNames) {
+        return new DataSource(
+            file, Format.JSON_LINES, ',', false, Collections.unmodifiableList(Arrays.asList(fieldNames.clone())));
+    }
+
+    /**
+     * Create a copy of this CSV data source using a different separator.
+     * @param separator the character separating fields, which must be ASCII
+     * @return a data source
+     * @throws IllegalStateException if this is not a CSV data source
+     */
+    public DataSource withSeparator(char separator) {
+        if (format != Format.CSV) {
+            throw new IllegalStateException("Only CSV data sources have a separator");
+        }
+        return new DataSource(file, format, separator, header, fieldNames);
+    }
+
+    /**
+     * Create a copy of this CSV data source whose first row is a header, which is skipped.
+     * @return a data source
+     * @throws IllegalStateException if this is not a CSV data source
+     */
+    public DataSource withHeader() {
+        if (format != Format.CSV) {
+            throw new IllegalStateException("Only CSV data sources have a header");
+        }
+        return new DataSource(file, format, separator, true, fieldNames);
+    }
+
+    /**
+     * Get a new stream of the rows of the file, which are read as the stream is consumed. The caller is responsible
+     * for closing the stream, which closes the file.
+     * @return a stream of the fields of each row
+     * @throws java.io.UncheckedIOException if the file cannot be opened
+     */
+    public Stream<String[]> rows() {
+        if (format == Format.CSV) {
+            CsvReader reader = new CsvReader(file, separator, header);
+            return stream(reader).onClose(reader::close);
+        }
+        JsonLinesReader reader = new JsonLinesReader(file, fieldNames);
+        return stream(reader).onClose(reader::close);
+    }
+
+    private static Stream<String[]> stream(Iterator<String[]> reader) {
+        return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(reader, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Get a new stream of the rows of the file, which must each have at least the given number of fields.
+     */
+    Stream<Row> rows(int columns) {
+        AtomicLong number = new AtomicLong();
+        return rows().map(fields -> {
+            Row row = new Row(fields, number.incrementAndGet());
+            if (fields.length < columns) {
+                throw row.error("expected " + columns + " fields, but found " + fields.length, null);
+            }
+            return row;
+        });
+    }
+
+    /**
+     * A row being converted to a datum.
+     */
+    class Row {
+        private final String[] fields;
+
+        private final long number;
+
+        Row(String[] fields, long number) {
+            this.fields = fields;
+            this.number = number;
+        }
+
+        /**
+         * Convert a field of the row.
+         * @throws IllegalArgumentException if the field cannot be converted
+         */
+        <T> T get(int column, Converter<T> converter) {
+            try {
+                return converter.convert(fields[column]);
+            }
+            catch (Exception e) {
+                throw error("cannot convert field " + (column + 1) + " \"" + fields[column] + "\"", e);
+            }
+        }
+
+        private IllegalArgumentException error(String problem, Exception cause) {
+            return new IllegalArgumentException("Invalid data in " + file + " at row " + number + ": " + problem, cause);
+        }
+    }
+}
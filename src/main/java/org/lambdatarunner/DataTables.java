@@ -0,0 +1,101 @@
+package org.lambdatarunner;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.lambdatarunner.internal.Settings;
+import org.lambdatarunner.internal.TableSnapshot;
+
+/**
+ * A registry of named tables of data, each built at most once per JVM, however many test classes use it. Expensive
+ * tables, such as those parsed from large corpora or holding computed expected values, can then be shared:
+ * <pre>
+ * return specs((word, stem) -&gt; assertEquals(stem, Stemmer.stem(word)),
+ *     DataTables.shared("stems", "corpus-2", () -&gt; Corpus.read().map(entry -&gt; datum(entry.word, entry.stem))));
+ * </pre>
+ * A table is built when first streamed, and held in memory for the rest of the JVM's life. Tables given a version are
+ * also kept on disk, if the {@code lambdata.tables} system property (or {@code LAMBDATA_TABLES} environment variable)
+ * names a directory for them: a later JVM reads the snapshot of the same name and version instead of building the
+ * table again. The version should be changed whenever the way the table is built does, as nothing else is checked;
+ * tables whose values are not serializable are simply not kept.
+ */
+public final class DataTables {
+    private static final Map<String, Table<?>> TABLES = new ConcurrentHashMap<>();
+
+    private DataTables() {} // prevent instantiation
+
+    private static class Table<D> {
+        private final String name;
+        private final String version;
+        private final Supplier<? extends Stream<D>> builder;
+        private volatile List<D> rows;
+
+        Table(String name, String version, Supplier<? extends Stream<D>> builder) {
+            this.name = name;
+            this.version = version;
+            this.builder = builder;
+        }
+
+        List<D> rows() {
+            List<D> rows = this.rows;
+            if (rows == null) {
+                synchronized (this) {
+                    rows = this.rows;
+                    if (rows == null) {
+                        rows = Collections.unmodifiableList(load());
+                        this.rows = rows;
+                    }
+                }
+            }
+            return rows;
+        }
+
+        private List<D> load() {
+            Path directory = version == null ? null : Settings.getPath("tables");
+            Path file = directory == null ? null : TableSnapshot.file(directory, name, version);
+            List<D> rows = file == null ? null : TableSnapshot.read(file);
+            if (rows == null) {
+                try (Stream<D> stream = builder.get()) {
+                    rows = stream.collect(Collectors.toList());
+                }
+                if (file != null) {
+                    TableSnapshot.write(file, rows);
+                }
+            }
+            return rows;
+        }
+    }
+
+    /**
+     * Get a source of the data of a table shared within this JVM, which may be passed to {@code specs}.
+     * @param name the name of the table; all uses of the table must build the same data
+     * @param builder a source of the data of the table, used only if the table has not yet been built in this JVM
+     * @return a source of the data of the table
+     */
+    public static <D extends Datum> Supplier<Stream<D>> shared(String name, Supplier<? extends Stream<D>> builder) {
+        return shared(name, null, builder);
+    }
+
+    /**
+     * Get a source of the data of a table shared within this JVM, and, if the {@code lambdata.tables} setting names
+     * a directory, with later JVMs, which may be passed to {@code specs}.
+     * @param name the name of the table; all uses of the table must build the same data
+     * @param version the version of the table, which must change whenever the data it builds do
+     * @param builder a source of the data of the table, used only if the table has not yet been built in this JVM,
+     * and has no snapshot
+     * @return a source of the data of the table
+     */
+    public static <D extends Datum> Supplier<Stream<D>> shared(
+        String name, String version, Supplier<? extends Stream<D>> builder) {
+        String key = version == null ? name : name + '\u0000' + version;
+        @SuppressWarnings("unchecked")
+        Table<D> table = (Table<D>) TABLES.computeIfAbsent(key, k -> new Table<>(name, version, builder));
+        return () -> table.rows().stream();
+    }
+}
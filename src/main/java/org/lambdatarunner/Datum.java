@@ -1,5 +1,11 @@
 package org.lambdatarunner;
 
-public interface Datum {
+import java.io.Serializable;
+
+/**
+ * The values passed to one run of a test. Data are serializable, so that tables of them can be kept in a
+ * {@link DataTables#shared(String, String, java.util.function.Supplier) snapshot}, provided their values are.
+ */
+public interface Datum extends Serializable {
     Object[] values();
 }
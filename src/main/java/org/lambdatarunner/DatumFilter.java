@@ -0,0 +1,156 @@
+package org.lambdatarunner;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.junit.runner.Description;
+import org.junit.runner.manipulation.Filter;
+import org.lambdatarunner.internal.Settings;
+
+/**
+ * A filter which selects individual runs of parameterized test methods by the position of their datum, rather than
+ * by their names, which need not be unique. Each selector has the form {@code [class#]method[[indexes]]}, where the
+ * class, which may be given by its full or simple name, is optional, and the indexes are a comma-separated list of
+ * zero-based datum positions or inclusive ranges of them, such as {@code 3} or {@code 10..20}. A selector with no
+ * indexes selects every run of the method. The stable id of a run, {@code com.example.MathTests#testAdd[3]}, is
+ * itself a selector for that run alone.
+ * <p>
+ * When applied to a {@link LambdataRunner}, runs are selected by their position; other runners only see the names
+ * of tests, so all the runs of a selected method are kept. The filter can also be applied before tests are
+ * discovered, by setting the {@code lambdata.select} system property (or {@code LAMBDATA_SELECT} environment
+ * variable) to a list of selectors separated by semicolons; unselected runs are then discarded as soon as their specs
+ * are read, without ever being described.
+ */
+public class DatumFilter extends Filter {
+    private static final Pattern SELECTOR = Pattern.compile("(?:([^#\\[\\]]+)#)?([^#\\[\\]]+)(?:\\[([^\\]]*)])?");
+
+    private static final Pattern RANGE = Pattern.compile("(\\d+)(?:\\.\\.(\\d+))?");
+
+    private static class Selector {
+        final String className;
+        final String methodName;
+        final List<int[]> ranges; // null to select all data
+
+        Selector(String className, String methodName, List<int[]> ranges) {
+            this.className = className;
+            this.methodName = methodName;
+            this.ranges = ranges;
+        }
+
+        boolean matches(String testClassName, String methodName) {
+            return this.methodName.equals(methodName)
+                && (className == null
+                    || className.equals(testClassName)
+                    || className.equals(testClassName.substring(
+                        Math.max(testClassName.lastIndexOf('.'), testClassName.lastIndexOf('$')) + 1)));
+        }
+
+        boolean matches(int index) {
+            return ranges == null || ranges.stream().anyMatch(range -> range[0] <= index && index <= range[1]);
+        }
+    }
+
+    private final List<String> selectors;
+
+    private final List<Selector> parsed;
+
+    private DatumFilter(List<String> selectors) {
+        this.selectors = selectors;
+        parsed = selectors.stream().map(DatumFilter::parseSelector).collect(Collectors.toList());
+    }
+
+    /**
+     * Create a filter selecting the given runs.
+     * @param selectors the selectors for the runs to select
+     * @return a new filter
+     * @throws IllegalArgumentException if a selector is malformed
+     */
+    public static DatumFilter select(String... selectors) {
+        return new DatumFilter(Collections.unmodifiableList(new ArrayList<>(Arrays.asList(selectors))));
+    }
+
+    /**
+     * Create a filter selecting the given runs.
+     * @param selectors the selectors for the runs to select, separated by semicolons
+     * @return a new filter
+     * @throws IllegalArgumentException if a selector is malformed
+     */
+    public static DatumFilter parse(String selectors) {
+        return select(Arrays.stream(selectors.split(";"))
+            .map(String::trim)
+            .filter(selector -> ! selector.isEmpty())
+            .toArray(String[]::new));
+    }
+
+    /**
+     * Create a filter from the {@code lambdata.select} setting.
+     * @return a new filter, or null if the setting is not set
+     */
+    static DatumFilter fromSettings() {
+        String selectors = Settings.get("select");
+        return selectors == null ? null : parse(selectors);
+    }
+
+    private static Selector parseSelector(String selector) {
+        Matcher matcher = SELECTOR.matcher(selector.trim());
+        if (! matcher.matches()) {
+            throw new IllegalArgumentException("Malformed datum selector: " + selector);
+        }
+        List<int[]> ranges = null;
+        if (matcher.group(3) != null) {
+            ranges = new ArrayList<>();
+            for (String range: matcher.group(3).split(",")) {
+                Matcher rangeMatcher = RANGE.matcher(range.trim());
+                if (! rangeMatcher.matches()) {
+                    throw new IllegalArgumentException("Malformed datum selector: " + selector);
+                }
+                int from = Integer.parseInt(rangeMatcher.group(1));
+                int to = rangeMatcher.group(2) == null ? from : Integer.parseInt(rangeMatcher.group(2));
+                ranges.add(new int[] {from, to});
+            }
+        }
+        return new Selector(matcher.group(1), matcher.group(2).trim(), ranges);
+    }
+
+    /**
+     * Determine if a test method which is not parameterized is selected, or if a parameterized one is named by any
+     * selector, so that some of its runs may be.
+     */
+    boolean shouldRun(Class<?> testClass, Method method) {
+        return parsed.stream().anyMatch(selector -> selector.matches(testClass.getName(), method.getName()));
+    }
+
+    /**
+     * Determine if a single run of a parameterized test method is selected.
+     */
+    boolean shouldRun(Class<?> testClass, Method method, int index) {
+        return parsed.stream().anyMatch(
+            selector -> selector.matches(testClass.getName(), method.getName()) && selector.matches(index));
+    }
+
+    @Override
+    public boolean shouldRun(Description description) {
+        if (description.isTest()) {
+            String methodName = description.getMethodName();
+            if (description.getClassName() == null || methodName == null) {
+                return false;
+            }
+            // runs of parameterized methods are named after their method, followed by a colon
+            int colon = methodName.indexOf(": ");
+            String testMethodName = colon < 0 ? methodName : methodName.substring(0, colon);
+            return parsed.stream().anyMatch(selector -> selector.matches(description.getClassName(), testMethodName));
+        }
+        return description.getChildren().stream().anyMatch(this::shouldRun);
+    }
+
+    @Override
+    public String describe() {
+        return "datums " + String.join(";", selectors);
+    }
+}
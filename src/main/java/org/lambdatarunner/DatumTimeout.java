@@ -0,0 +1,31 @@
+package org.lambdatarunner;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the time each datum of a parameterized test method run by {@link LambdataRunner} may take. Unlike the
+ * {@code timeout} of {@link org.junit.Test @Test} or the {@link org.junit.rules.Timeout Timeout} rule, which run each
+ * test on a new thread, data are run on the usual thread, watched by a single watchdog thread shared by all tests: a
+ * datum which takes too long is interrupted, and fails with an exception whose stack trace shows where it was. As
+ * with the timeout of {@code @Test}, the befores and afters are not included. When placed on a test class, this
+ * applies to each parameterized method of the class which is not itself annotated.
+ * <p>
+ * Since the datum is not abandoned, a datum which ignores interrupts still runs to completion, and then fails.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface DatumTimeout {
+    /**
+     * @return the time each datum may take
+     */
+    long value();
+
+    /**
+     * @return the unit of {@link #value()}
+     */
+    TimeUnit unit() default TimeUnit.MILLISECONDS;
+}
@@ -9,10 +9,21 @@ import java.text.MessageFormat;
 /**
  * Provides a template for describing the individual runs of a parameterized test run by {@link LambdataRunner}.
  * The value provided by this annotation will be parsed by {@link MessageFormat#format(String, Object...)}; the
- * arguments to the format string will be the fields of the datum for the current test run.
+ * arguments to the format string will be the fields of the datum for the current test run. Additionally, the
+ * placeholder {@code {index}} is replaced by the zero-based position of the datum.
+ * <p>
+ * The pattern is parsed once for each method. Fields which are neither numbers nor dates, and which have no format type
+ * in the pattern, are rendered to at most {@link #maxValueLength()} characters, with arrays and collections rendered
+ * element by element up to that length. Fields not referred to by the pattern are not rendered at all.
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 public @interface DescribeAs {
     String value();
+
+    /**
+     * The maximum number of characters used to render a single field of the datum; longer fields are truncated,
+     * ending in an ellipsis.
+     */
+    int maxValueLength() default 200;
 }
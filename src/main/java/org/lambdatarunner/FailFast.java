@@ -0,0 +1,23 @@
+package org.lambdatarunner;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Indicates that a parameterized test method run by {@link LambdataRunner} should stop running its data once a
+ * number of them have failed. The remaining data are reported as skipped, through failed assumptions, without running
+ * the befores, afters and rules of the test class. When placed on a test class, this applies to each parameterized
+ * method of the class which is not itself annotated; the failures of each method are counted separately.
+ * <p>
+ * This is intended for large tables, where a basic bug would otherwise fail every datum, slowly.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface FailFast {
+    /**
+     * @return the number of failures after which the remaining data are skipped
+     */
+    int maxFailures() default 1;
+}
@@ -0,0 +1,29 @@
+package org.lambdatarunner;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Indicates that the data of a parameterized test method run by {@link LambdataRunner} need only be run again when
+ * they, or the code they test, have changed since they last passed. This takes effect only when a cache directory is
+ * given by the {@code lambdata.incremental} system property (or {@code LAMBDATA_INCREMENTAL} environment variable),
+ * so that it can be enabled for local runs and left off in continuous integration. When placed on a test class, this
+ * applies to each parameterized method of the class which is not itself annotated.
+ * <p>
+ * Each datum is keyed by a hash of its values, the bytecode of the test class and its superclasses, and the bytecode
+ * of the given classes under test. A datum whose key is unchanged since it last passed is reported as skipped, through
+ * a failed assumption, without running the befores, afters and rules of the test class. Data whose values have no
+ * stable text, such as objects which do not override {@code toString()}, are always run. Code reached only through
+ * classes which are not listed, or through resources, is not taken into account, so the classes under test should
+ * include any whose changes matter.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface Incremental {
+    /**
+     * @return the classes under test, whose bytecode is part of the key of each datum
+     */
+    Class<?>[] value() default {};
+}
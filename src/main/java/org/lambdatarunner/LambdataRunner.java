@@ -3,24 +3,73 @@ package org.lambdatarunner;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.internal.runners.ErrorReportingRunner;
 import org.junit.internal.runners.model.ReflectiveCallable;
 import org.junit.internal.runners.statements.Fail;
+import org.junit.rules.MethodRule;
+import org.junit.rules.TestRule;
 import org.junit.runner.Description;
+import org.junit.runner.Runner;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.manipulation.NoTestsRemainException;
+import org.junit.runner.notification.RunListener;
+import org.junit.runner.notification.RunNotifier;
 import org.junit.runners.BlockJUnit4ClassRunner;
 import org.junit.runners.model.FrameworkMethod;
 import org.junit.runners.model.InitializationError;
 import org.junit.runners.model.Statement;
+import org.lambdatarunner.internal.AsyncWindow;
+import org.lambdatarunner.internal.BenchmarkReport;
+import org.lambdatarunner.internal.DatumAllocations;
+import org.lambdatarunner.internal.DatumBenchmark;
+import org.lambdatarunner.internal.DatumHistory;
+import org.lambdatarunner.internal.DatumLatencyBudget;
+import org.lambdatarunner.internal.DatumTimings;
+import org.lambdatarunner.internal.FailureLimit;
+import org.lambdatarunner.internal.ForkJoinScheduler;
+import org.lambdatarunner.internal.HeapWatermark;
 import org.lambdatarunner.internal.IgnoredParameterizedFrameworkMethod;
+import org.lambdatarunner.internal.LatencyBaseline;
+import org.lambdatarunner.internal.MethodPipeline;
+import org.lambdatarunner.internal.MethodRuns;
+import org.lambdatarunner.internal.NameTemplate;
+import org.lambdatarunner.internal.ParameterizedBatchFrameworkMethod;
+import org.lambdatarunner.internal.ParameterizedBatchInvokeMethod;
 import org.lambdatarunner.internal.ParameterizedFrameworkMethod;
 import org.lambdatarunner.internal.ParameterizedInvokeMethod;
+import org.lambdatarunner.internal.ResultCache;
+import org.lambdatarunner.internal.ResultStream;
+import org.lambdatarunner.internal.Shard;
+import org.lambdatarunner.internal.StableIds;
+import org.lambdatarunner.internal.TestSpecCursor;
+import org.lambdatarunner.internal.Watchdog;
 
 /**
  * A JUnit runner which allows using lambdas to set up data-driven tests. To use, first, annotate your test class
@@ -67,60 +116,437 @@ import org.lambdatarunner.internal.ParameterizedInvokeMethod;
  * are run. This differs from the usual JUnit behavior, in which a new instance of the test class is created for each
  * run. In particular, initializing of any mutable instance fields in the test object should be done in a
  * method annotated with {@link org.junit.Before @Before}, rather than in the field declarations or test class constructor.
+ * As each run of a method uses the same instance, its rules are found, through {@link #rules} and
+ * {@link #getTestRules}, once for each method and instance rather than for each run; {@link #withBefores} and
+ * {@link #withAfters} are still called for each run.
+ * <p>
+ * Test classes annotated with {@link Parallel @Parallel} have their individual runs spread over a fork-join pool. Each
+ * worker thread uses its own instance of the test class, on which the spec methods are called again; the spec at the
+ * same position as the datum being run is then used, with befores, afters and rules run against that instance.
+ * <p>
+ * Test specs may be supplied lazily, for instance by passing a supplier of streams of datum to {@code specs}. Such
+ * sources are read once to describe the tests, and again, sequentially, as the tests are run, so that the full set of
+ * data need never be held in memory.
+ * <p>
+ * Spec methods are not called when the runner is created, as test methods are validated by their signatures alone, but
+ * when the tests of the class are first described, filtered or run. They are then called in turn, on the thread
+ * describing the tests, except in {@link Parallel @Parallel} classes, whose spec methods are called concurrently, on as
+ * many threads as the class runs its tests on, for the time it takes to call them. A failing spec method is reported
+ * as a failure to initialize the class. Spec methods not named by a {@link DatumFilter} applied before then are never
+ * called.
+ * <p>
+ * Parameterized test methods annotated with {@link Batched @Batched} have their data run in batches, each within a
+ * single pass of the befores, afters and rules of the test class; the asynchronous data of a batch, supplied to
+ * {@code asyncSpecs} as lambdas returning a {@link java.util.concurrent.CompletionStage}, can be kept in flight
+ * together, up to {@link Batched#inFlight()} at a time. This window is only kept within a batch: the asynchronous data
+ * of methods which are not batched are each started and waited for in turn, within befores and afters of their own,
+ * so that only one of them is in flight at once. Those annotated with {@link FailFast @FailFast}, or
+ * belonging to a class so annotated, skip their remaining data once a given number of them have failed. Those
+ * annotated with {@link DatumTimeout @DatumTimeout} fail any datum which takes too long, interrupting it from a single
+ * watchdog thread rather than running each datum on a thread of its own.
+ * <p>
+ * If the system property {@code lambdata.timings} (or environment variable {@code LAMBDATA_TIMINGS}) names a
+ * directory, the time taken by each datum is recorded, and a JSON report is written to that directory for each test
+ * class, giving latency percentiles for each method, along with the slowest {@code lambdata.timings.slowest}
+ * (default 10) data of the class. Similarly, if {@code lambdata.heap} names a directory, a JSON report of the peak heap
+ * usage while the tests of each class ran is written there. Each datum held in memory is released as soon as it has
+ * run, so that the heap needed depends on the largest datum, rather than the size of the table.
+ * <p>
+ * A test suite can be split between several JVMs by setting {@code lambdata.shard.count} to the number of JVMs, and
+ * {@code lambdata.shard.index} to a different number, from zero, in each (or the environment variables
+ * {@code LAMBDATA_SHARD_COUNT} and {@code LAMBDATA_SHARD_INDEX}). Each JVM then runs only those test methods, and
+ * individual runs of parameterized methods, whose stable hash falls in its shard; the runs of other shards are
+ * discarded as soon as their specs are read, without being described. In the same way, individual runs can be
+ * selected by the position of their datum, with a {@link DatumFilter}.
+ * <p>
+ * If {@code lambdata.history} (or {@code LAMBDATA_HISTORY}) names a directory, such as one under the build directory,
+ * the outcome and duration of each test is kept there, and the tests of a class are run in order of how likely they
+ * are to fail: those which failed in any of the last {@code lambdata.history.window} (default 5) runs first, the
+ * methods with the fastest of them first, then those with no history, and then the rest. Within each of these, the
+ * runs of a method keep their declaration order.
+ * <p>
+ * If {@code lambdata.incremental} (or {@code LAMBDATA_INCREMENTAL}) names a directory, the data of
+ * {@link Incremental @Incremental} methods which passed are recorded there, and are skipped in later runs for as long
+ * as their values, and the code of the test class and of the classes under test, are unchanged.
+ * <p>
+ * If {@code lambdata.results} (or {@code LAMBDATA_RESULTS}) names a directory, the result of each test is written
+ * there as soon as it finishes, with the name of the test and, for runs of parameterized methods, the position of the
+ * datum: as JSON lines, or as JUnit XML if {@code lambdata.results.format} is {@code xml}, compressed with gzip if
+ * {@code lambdata.results.compress} is true. Only the tests in progress are held in memory while doing so.
+ * <p>
+ * If {@code lambdata.benchmarks} (or {@code LAMBDATA_BENCHMARKS}) names a directory, the data of
+ * {@link Microbenchmark @Microbenchmark} methods are run as microbenchmarks, and their throughput and latencies are
+ * written there.
+ * <p>
+ * If {@code lambdata.baseline} (or {@code LAMBDATA_BASELINE}) names a directory, the data of
+ * {@link LatencyBudget @LatencyBudget} methods are timed, and fail if they have become significantly slower than the
+ * baseline kept there.
  */
 public class LambdataRunner extends BlockJUnit4ClassRunner {
     private Map<Method, List<FrameworkMethod>> testMethods;
 
-    private final ThreadLocal<Object> testInstance = new ThreadLocal<>();
+    // the befores, afters and rules of each parameterized method, for each test instance its runs are bound to
+    private final Map<Method, List<MethodPipeline>> pipelines = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<Object> workerTest = new ThreadLocal<>();
+
+    private final ThreadLocal<Map<Method, TestSpecCursor>> workerTestSpecs = ThreadLocal.withInitial(HashMap::new);
+
+    // set if calling the spec methods failed, in which case the class is reported as failing to initialize
+    private Throwable discoveryError;
+
+    private final Queue<TestSpecCursor> cursors = new ConcurrentLinkedQueue<>();
+
+    private final Shard shard = Shard.fromSettings();
+
+    // the datum filters applied before the test methods were computed, all of which runs must pass
+    private final List<DatumFilter> selections = new ArrayList<>();
+
+    private Description description;
+
+    private final boolean parallel;
+
+    // the number of threads spec methods are called on at once
+    private final int specThreads;
+
+    private final DatumTimings timings = DatumTimings.fromSettings();
+
+    private final HeapWatermark heap = HeapWatermark.fromSettings();
+
+    private final DatumHistory history;
+
+    private final Map<Method, FailureLimit> failureLimits = new HashMap<>();
+
+    private final ResultCache results;
+
+    private final Map<Method, Watchdog> watchdogs = new HashMap<>();
+
+    private final ResultStream resultStream;
+
+    private final BenchmarkReport benchmarkReport = BenchmarkReport.fromSettings();
+
+    private final Map<Method, DatumBenchmark> benchmarks = new HashMap<>();
+
+    private final LatencyBaseline baseline;
+
+    private final Map<Method, DatumLatencyBudget> latencyBudgets = new HashMap<>();
+
+    private final DatumAllocations allocations;
 
     public LambdataRunner(Class<?> klass) throws InitializationError {
         super(klass);
+        DatumFilter selection = DatumFilter.fromSettings();
+        if (selection != null) {
+            selections.add(selection);
+        }
+        history = DatumHistory.fromSettings(klass);
+        results = ResultCache.fromSettings(klass);
+        resultStream = ResultStream.fromSettings(klass);
+        baseline = LatencyBaseline.fromSettings(klass);
+        for (FrameworkMethod testMethod: getTestClass().getAnnotatedMethods(Test.class)) {
+            Method method = testMethod.getMethod();
+            FailureLimit failureLimit = FailureLimit.of(klass, method);
+            if (failureLimit != null && isParameterizedMethod(method)) {
+                failureLimits.put(method, failureLimit);
+            }
+            Watchdog watchdog = Watchdog.of(klass, method);
+            if (watchdog != null && isParameterizedMethod(method)) {
+                watchdogs.put(method, watchdog);
+            }
+            DatumBenchmark benchmark = benchmarkReport == null ? null : DatumBenchmark.of(klass, method);
+            if (benchmark != null && isParameterizedMethod(method)) {
+                benchmarks.put(method, benchmark);
+            }
+            DatumLatencyBudget latencyBudget = baseline == null ? null : DatumLatencyBudget.of(klass, method);
+            if (latencyBudget != null && isParameterizedMethod(method)) {
+                latencyBudgets.put(method, latencyBudget);
+            }
+        }
+        allocations = DatumAllocations.of(klass, getTestClass().getAnnotatedMethods(Test.class).stream()
+            .map(FrameworkMethod::getMethod)
+            .filter(LambdataRunner::isParameterizedMethod)
+            .collect(Collectors.toList()));
+        Parallel parallelAnnotation = klass.getAnnotation(Parallel.class);
+        parallel = parallelAnnotation != null;
+        if (parallel) {
+            setScheduler(new ForkJoinScheduler(parallelAnnotation.threads()));
+        }
+        if (! parallel) {
+            specThreads = 1;
+        }
+        else if (parallelAnnotation.threads() > 0) {
+            specThreads = parallelAnnotation.threads();
+        }
+        else {
+            specThreads = Runtime.getRuntime().availableProcessors();
+        }
     }
 
     @Override
     protected List<FrameworkMethod> computeTestMethods() {
-        return getTestMethods().values().stream().flatMap(List::stream).collect(Collectors.toList());
+        List<FrameworkMethod> methods = getTestMethods().values().stream()
+            .flatMap(List::stream)
+            .collect(Collectors.toList());
+        if (history != null) {
+            // the priority of each child is found once, rather than on every comparison
+            Map<FrameworkMethod, Long> priorities = new IdentityHashMap<>();
+            getTestMethods().values().forEach(children -> priorities(children, priorities));
+            methods.sort(Comparator.comparingLong(priorities::get));
+        }
+        return methods;
     }
 
-    private Map<Method, List<FrameworkMethod>> getTestMethods() {
+    /**
+     * Find the priorities of the children of a test method. The recently failing children of a parameterized method
+     * share the priority of the fastest of them, so that they keep their declaration order, and a lazily sourced
+     * method reads its source through at most once for each tier of the history.
+     */
+    private void priorities(List<FrameworkMethod> children, Map<FrameworkMethod, Long> priorities) {
+        Class<?> testClass = getTestClass().getJavaClass();
+        long fastestFailing = Long.MAX_VALUE;
+        for (FrameworkMethod child: children) {
+            long priority =
+                (child instanceof ParameterizedFrameworkMethod || child instanceof ParameterizedBatchFrameworkMethod)
+                    ? datumMethods(child)
+                        .mapToLong(run -> history.priority(StableIds.of(testClass, run.getMethod(), run.getIndex())))
+                        .min()
+                        .orElse(Long.MAX_VALUE)
+                    : history.priority(StableIds.of(testClass, child.getMethod()));
+            priorities.put(child, priority);
+            if (DatumHistory.failedRecently(priority)) {
+                fastestFailing = Math.min(fastestFailing, priority);
+            }
+        }
+        for (FrameworkMethod child: children) {
+            if (DatumHistory.failedRecently(priorities.get(child))) {
+                priorities.put(child, fastestFailing);
+            }
+        }
+    }
+
+    /**
+     * Get the test methods, computing them the first time they are needed, rather than when the runner is created.
+     * If a spec method fails, there are none, and the failure is kept to be reported in their place.
+     */
+    private synchronized Map<Method, List<FrameworkMethod>> getTestMethods() {
         if (testMethods == null) {
-            testMethods = createTestMethods();
+            try {
+                testMethods = createTestMethods();
+            }
+            catch (RuntimeException | Error e) {
+                discoveryError = e;
+                testMethods = new LinkedHashMap<>();
+            }
         }
         return testMethods;
     }
 
     private Map<Method, List<FrameworkMethod>> createTestMethods() {
+        List<FrameworkMethod> candidates = super.computeTestMethods();
+        List<FrameworkMethod> specMethods = candidates.stream()
+            .filter(candidate -> isParameterizedMethod(candidate.getMethod())
+                && candidate.getAnnotation(Ignore.class) == null
+                && isCandidate(candidate.getMethod()))
+            .collect(Collectors.toList());
+        // the spec methods of parallel classes, which are called concurrently by their workers anyway, are called
+        // concurrently, each on a test instance of its own, with the first called on this thread
+        ExecutorService executor = specMethods.size() > 1 && specThreads > 1
+            ? Executors.newFixedThreadPool(Math.min(specThreads, specMethods.size()) - 1, runnable -> {
+                Thread thread = new Thread(runnable, "lambdata-specs");
+                thread.setDaemon(true);
+                return thread;
+            })
+            : null;
+        try {
+            return createTestMethods(candidates, specMethods, executor);
+        }
+        finally {
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    private Map<Method, List<FrameworkMethod>> createTestMethods(
+        List<FrameworkMethod> candidates, List<FrameworkMethod> specMethods, ExecutorService executor) {
+        Map<Method, CompletableFuture<List<FrameworkMethod>>> parameterized = new HashMap<>();
+        for (FrameworkMethod candidate: specMethods) {
+            parameterized.put(candidate.getMethod(), executor == null || parameterized.isEmpty()
+                ? null
+                : CompletableFuture.supplyAsync(() -> parameterizeMethod(candidate), executor));
+        }
         Map<Method, List<FrameworkMethod>> testMethods = new LinkedHashMap<>();
-        for (FrameworkMethod candidate: super.computeTestMethods()) {
-            if (isParameterizedMethod(candidate.getMethod())) {
-                if (candidate.getAnnotation(Ignore.class) == null) {
-                    testMethods.put(candidate.getMethod(), parameterizeMethod(candidate));
-                }
-                else {
-                    testMethods.put(candidate.getMethod(), Collections.singletonList(new IgnoredParameterizedFrameworkMethod(candidate)));
+        for (FrameworkMethod candidate: candidates) {
+            if (parameterized.containsKey(candidate.getMethod())) {
+                CompletableFuture<List<FrameworkMethod>> future = parameterized.get(candidate.getMethod());
+                List<FrameworkMethod> methods = future == null ? parameterizeMethod(candidate) : join(future);
+                // methods with no runs in this shard or selection are left out, rather than described with no children
+                if ((shard == null && selections.isEmpty()) || ! methods.isEmpty()) {
+                    testMethods.put(candidate.getMethod(), methods);
                 }
             }
-            else {
-                testMethods.put(candidate.getMethod(), Collections.singletonList(candidate));
+            // spec methods not named by the selections are not selected either, so are never called
+            else if (isSelected(candidate.getMethod())) {
+                testMethods.put(candidate.getMethod(), Collections.singletonList(
+                    isParameterizedMethod(candidate.getMethod())
+                        ? new IgnoredParameterizedFrameworkMethod(candidate)
+                        : candidate));
             }
         }
         return testMethods;
     }
 
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Validate the test methods by their signatures alone, without calling the spec methods.
+     */
     @Override
     protected void validateTestMethods(List<Throwable> errors) {
-        computeTestMethods().forEach(testMethod -> testMethod.validatePublicVoid(false, errors));
+        for (FrameworkMethod testMethod: super.computeTestMethods()) {
+            (isParameterizedMethod(testMethod.getMethod()) ? new IgnoredParameterizedFrameworkMethod(testMethod) : testMethod)
+                .validatePublicVoid(false, errors);
+        }
+    }
+
+    @Override
+    @Deprecated
+    protected void validateInstanceMethods(List<Throwable> errors) {
+        validatePublicVoidNoArgMethods(After.class, false, errors);
+        validatePublicVoidNoArgMethods(Before.class, false, errors);
+        validateTestMethods(errors);
+
+        // When sharding or selecting, there may be none of the runs of a class to run, which is only an error if
+        // there would be none at all
+        if (super.computeTestMethods().isEmpty()) {
+            errors.add(new Exception("No runnable methods"));
+        }
     }
 
     @Override
-    protected Statement methodInvoker(FrameworkMethod method, Object test) {
-        return (method instanceof ParameterizedFrameworkMethod)
-            ? new ParameterizedInvokeMethod((ParameterizedFrameworkMethod) method)
-            : super.methodInvoker(method, test);
+    @SuppressWarnings("deprecation")
+    protected Statement withPotentialTimeout(FrameworkMethod method, Object test, Statement next) {
+        Statement statement = super.withPotentialTimeout(method, test, next);
+        Watchdog watchdog = watchdogs.get(method.getMethod());
+        return watchdog == null ? statement : watchdog.apply(statement);
+    }
+
+    /**
+     * Create the statement used to run a single datum of a batch, which is the part of the method block for the datum
+     * that is run within the befores and afters.
+     */
+    private Statement datumBlock(ParameterizedFrameworkMethod method, TestSpec spec) {
+        if (isUnchanged(method, spec)) {
+            return results.skip();
+        }
+        return withFailureLimit(method, datumStatement(method, spec));
+    }
+
+    /**
+     * Create the statement which runs the spec of a datum with its expected exceptions and timeout, as run within the
+     * befores and afters.
+     */
+    @SuppressWarnings("deprecation")
+    private Statement datumStatement(ParameterizedFrameworkMethod method, TestSpec spec) {
+        Statement statement = datumInvoker(method, spec);
+        statement = possiblyExpectingExceptions(method, method.getTest(), statement);
+        return withPotentialTimeout(method, method.getTest(), statement);
+    }
+
+    /**
+     * Get the befores, afters and rules of a parameterized method, as resolved for the test instance its runs are
+     * bound to, resolving them on first use.
+     */
+    private MethodPipeline pipeline(FrameworkMethod method, Object test) {
+        List<MethodPipeline> methodPipelines =
+            pipelines.computeIfAbsent(method.getMethod(), m -> new CopyOnWriteArrayList<>());
+        for (MethodPipeline pipeline: methodPipelines) {
+            if (pipeline.getTest() == test) {
+                return pipeline;
+            }
+        }
+        List<TestRule> testRules = getTestRules(test);
+        List<MethodRule> methodRules = rules(test).stream()
+            .filter(rule -> ! testRules.contains(rule))
+            .collect(Collectors.toList());
+        MethodPipeline pipeline = new MethodPipeline(test, this::withBefores, this::withAfters, methodRules, testRules);
+        methodPipelines.add(pipeline);
+        return pipeline;
+    }
+
+    /**
+     * Create the statement which runs the spec of a datum: once, as a microbenchmark, or timed against its latency
+     * budget.
+     */
+    private Statement datumInvoker(ParameterizedFrameworkMethod method, TestSpec spec) {
+        DatumBenchmark benchmark = benchmarks.get(method.getMethod());
+        if (benchmark != null) {
+            return benchmark.invoker(method, spec, benchmarkReport);
+        }
+        DatumLatencyBudget latencyBudget = latencyBudgets.get(method.getMethod());
+        if (latencyBudget != null && latencyBudget.appliesTo(method.getIndex())) {
+            String id = LatencyBaseline.id(
+                getTestClass().getJavaClass(), method.getMethod(), method.getIndex(), spec.getDatum());
+            return latencyBudget.invoker(method, spec, baseline, id);
+        }
+        return new ParameterizedInvokeMethod(method, spec, timings, allocations);
+    }
+
+    private boolean isSelected(Method method) {
+        return (shard == null || shard.contains(getTestClass().getJavaClass(), method)) && isCandidate(method);
+    }
+
+    /**
+     * Determine whether a method is named by every selection, so that some of its runs may be selected.
+     */
+    private boolean isCandidate(Method method) {
+        return selections.stream().allMatch(selection -> selection.shouldRun(getTestClass().getJavaClass(), method));
+    }
+
+    private boolean isSelected(Method method, int index) {
+        return (shard == null || shard.contains(getTestClass().getJavaClass(), method, index))
+            && selections.stream().allMatch(
+                selection -> selection.shouldRun(getTestClass().getJavaClass(), method, index));
     }
 
     @Override
     public Description getDescription() {
+        if (description == null) {
+            getTestMethods();
+            description = discoveryError == null ? describe() : discoveryErrorRunner().getDescription();
+        }
+        return description;
+    }
+
+    @Override
+    public void run(RunNotifier notifier) {
+        getTestMethods();
+        if (discoveryError == null) {
+            super.run(notifier);
+        }
+        else {
+            discoveryErrorRunner().run(notifier);
+        }
+    }
+
+    private Runner discoveryErrorRunner() {
+        return new ErrorReportingRunner(getTestClass().getJavaClass(), discoveryError);
+    }
+
+    private Description describe() {
         Description description = Description.createSuiteDescription(getName(), getTestClass().getAnnotations());
         for (Map.Entry<Method, List<FrameworkMethod>> entry: getTestMethods().entrySet()) {
             Method method = entry.getKey();
@@ -128,7 +554,7 @@ public class LambdataRunner extends BlockJUnit4ClassRunner {
                 Description testDescription =
                     Description.createSuiteDescription(method.getName(), method.getAnnotations());
                 entry.getValue().stream()
-                    .map(ParameterizedFrameworkMethod.class::cast)
+                    .flatMap(LambdataRunner::datumMethods)
                     .map(ParameterizedFrameworkMethod::getDescription)
                     .forEach(testDescription::addChild);
                 description.addChild(testDescription);
@@ -141,42 +567,383 @@ public class LambdataRunner extends BlockJUnit4ClassRunner {
         return description;
     }
 
+    @Override
+    public void filter(Filter filter) throws NoTestsRemainException {
+        description = null;
+        if (filter instanceof DatumFilter && testMethods == null) {
+            preselect((DatumFilter) filter);
+            return;
+        }
+        getTestMethods();
+        if (discoveryError != null) {
+            if (! filter.shouldRun(getDescription())) {
+                throw new NoTestsRemainException();
+            }
+            return;
+        }
+        if (filter instanceof DatumFilter) {
+            filter = select((DatumFilter) filter);
+        }
+        super.filter(filter);
+
+        // keep the methods used to describe the tests in line with the children to be run
+        for (Iterator<Map.Entry<Method, List<FrameworkMethod>>> entries = getTestMethods().entrySet().iterator();
+             entries.hasNext(); ) {
+            Map.Entry<Method, List<FrameworkMethod>> entry = entries.next();
+            List<FrameworkMethod> methods = new ArrayList<>();
+            for (FrameworkMethod method: entry.getValue()) {
+                if (filter.shouldRun(describeChild(method))) {
+                    methods.add(method);
+                }
+            }
+            if (methods.isEmpty()) {
+                entries.remove();
+            }
+            else {
+                entry.setValue(methods);
+            }
+        }
+    }
+
+    /**
+     * Apply a datum filter before the test methods have been computed, so that spec methods it does not name are never
+     * called, and the runs it does not select are discarded as soon as their specs are read.
+     */
+    private void preselect(DatumFilter datumFilter) throws NoTestsRemainException {
+        Class<?> testClass = getTestClass().getJavaClass();
+        if (super.computeTestMethods().stream().noneMatch(method -> datumFilter.shouldRun(testClass, method.getMethod()))) {
+            throw new NoTestsRemainException();
+        }
+        selections.add(datumFilter);
+    }
+
+    /**
+     * Remove the runs not selected by a datum filter, by their position rather than their description, so that
+     * they need never be named. Returns a filter selecting the remaining tests by description, to be applied to
+     * the children of this runner; runs of parameterized methods are matched by identity, as their names need not be
+     * unique.
+     */
+    private Filter select(DatumFilter datumFilter) {
+        Class<?> testClass = getTestClass().getJavaClass();
+        Set<Description> selectedRuns = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Description> selectedMethods = new HashSet<>();
+        for (Iterator<Map.Entry<Method, List<FrameworkMethod>>> entries = getTestMethods().entrySet().iterator();
+             entries.hasNext(); ) {
+            Map.Entry<Method, List<FrameworkMethod>> entry = entries.next();
+            List<FrameworkMethod> methods = new ArrayList<>();
+            for (FrameworkMethod method: entry.getValue()) {
+                if (method instanceof ParameterizedFrameworkMethod) {
+                    if (datumFilter.shouldRun(testClass, method.getMethod(), ((ParameterizedFrameworkMethod) method).getIndex())) {
+                        methods.add(method);
+                    }
+                }
+                else if (method instanceof ParameterizedBatchFrameworkMethod) {
+                    try {
+                        ((ParameterizedBatchFrameworkMethod) method).retain(
+                            run -> datumFilter.shouldRun(testClass, run.getMethod(), run.getIndex()));
+                        methods.add(method);
+                    }
+                    catch (NoTestsRemainException e) {
+                        // leave the batch out
+                    }
+                }
+                else if (datumFilter.shouldRun(testClass, method.getMethod())) {
+                    methods.add(method);
+                    selectedMethods.add(describeChild(method));
+                }
+            }
+            methods.stream()
+                .filter(method -> method instanceof ParameterizedFrameworkMethod || method instanceof ParameterizedBatchFrameworkMethod)
+                .flatMap(LambdataRunner::datumMethods)
+                .forEach(run -> selectedRuns.add(run.getDescription()));
+            if (methods.isEmpty()) {
+                entries.remove();
+            }
+            else {
+                entry.setValue(methods);
+            }
+        }
+        return new Filter() {
+            @Override
+            public boolean shouldRun(Description description) {
+                return description.isTest()
+                    ? selectedRuns.contains(description) || selectedMethods.contains(description)
+                    : description.getChildren().stream().anyMatch(this::shouldRun);
+            }
+
+            @Override
+            public String describe() {
+                return datumFilter.describe();
+            }
+        };
+    }
+
     @Override
     protected Description describeChild(FrameworkMethod method) {
         if (method instanceof ParameterizedFrameworkMethod) {
             return ((ParameterizedFrameworkMethod) method).getDescription();
         }
+        else if (method instanceof ParameterizedBatchFrameworkMethod) {
+            return ((ParameterizedBatchFrameworkMethod) method).getDescription();
+        }
         else {
             return super.describeChild(method);
         }
     }
 
+    private static Stream<ParameterizedFrameworkMethod> datumMethods(FrameworkMethod method) {
+        return (method instanceof ParameterizedBatchFrameworkMethod)
+            ? ((ParameterizedBatchFrameworkMethod) method).getMethods().stream()
+            : Stream.of((ParameterizedFrameworkMethod) method);
+    }
+
+    @Override
+    protected void runChild(FrameworkMethod method, RunNotifier notifier) {
+        if (method instanceof ParameterizedBatchFrameworkMethod) {
+            runBatch((ParameterizedBatchFrameworkMethod) method, notifier);
+        }
+        else {
+            super.runChild(method, notifier);
+        }
+    }
+
+    private void runBatch(ParameterizedBatchFrameworkMethod batch, RunNotifier notifier) {
+        ParameterizedBatchInvokeMethod invoker;
+        Statement statement;
+        FailureLimit failureLimit = failureLimits.get(batch.getMethod());
+        if (failureLimit != null && failureLimit.isReached()) {
+            new ParameterizedBatchInvokeMethod(batch, notifier, this::datumBlock).run(failureLimit.skip());
+            return;
+        }
+        try {
+            if (parallel) {
+                batch = batch.bindTo(workerTest(), workerTestSpecs(batch));
+            }
+            // as with individual runs, the batch is run against the test instance its lambda is bound to; expected
+            // exceptions and timeouts apply to each datum individually, see datumBlock
+            // data are not started ahead once they would be skipped, as unchanged or past the failure limit
+            int inFlight = batch.getAnnotation(Batched.class).inFlight();
+            invoker = new ParameterizedBatchInvokeMethod(batch, notifier, this::datumBlock, inFlight <= 1
+                ? null
+                : new AsyncWindow(batch.getMethods(), inFlight, (method, spec) ->
+                    (failureLimit == null || ! failureLimit.isReached()) && ! isUnchanged(method, spec)));
+            statement = pipeline(batch, batch.getTest()).apply(invoker, batch, batch.getDescription());
+        }
+        catch (Throwable e) {
+            invoker = new ParameterizedBatchInvokeMethod(batch, notifier, this::datumBlock);
+            statement = new Fail(e);
+        }
+        invoker.run(withFailureLimit(batch, statement));
+    }
+
     @Override
     protected Statement methodBlock(FrameworkMethod method) {
         // The lambda expression which is used to run the test is implicitly bound to the test object that was created
-        // to determine the data to run that expression over. Consequently, the method block must use that same instance.
-        // Because the superclass implementation of this method calls private methods, we cannot easily override this
-        // with a method that does not call super.methodBlock. Consequently, we are forced to override the createTest()
-        // method, and to do so, we must "tunnel" in the test object we want it to return
+        // to determine the data to run that expression over. Consequently, the method block must use that same
+        // instance, rather than creating one as the superclass does; since every run of a method uses the same
+        // instance, its rules are resolved once, rather than for each run
         if (method instanceof ParameterizedFrameworkMethod) {
-            testInstance.set(((ParameterizedFrameworkMethod) method).getTest());
+            FailureLimit failureLimit = failureLimits.get(method.getMethod());
+            if (failureLimit != null && failureLimit.isReached()) {
+                return failureLimit.skip();
+            }
+            ParameterizedFrameworkMethod parameterizedMethod = (ParameterizedFrameworkMethod) method;
+            if (parallel) {
+                try {
+                    parameterizedMethod = parameterizedMethod.bindTo(workerTest(), workerTestSpecs(method));
+                }
+                catch (Throwable e) {
+                    return withFailureLimit(method, new Fail(e));
+                }
+            }
+            if (isUnchanged(parameterizedMethod)) {
+                return results.skip();
+            }
+            Statement statement;
+            try {
+                statement = datumStatement(parameterizedMethod, parameterizedMethod.getTestSpec());
+            }
+            catch (RuntimeException e) {
+                return withFailureLimit(method, new Fail(e));
+            }
+            statement = pipeline(parameterizedMethod, parameterizedMethod.getTest())
+                .apply(statement, parameterizedMethod, parameterizedMethod.getDescription());
+            return withFailureLimit(method, statement);
         }
+        return super.methodBlock(method);
+    }
+
+    private Statement withFailureLimit(FrameworkMethod method, Statement statement) {
+        FailureLimit failureLimit = failureLimits.get(method.getMethod());
+        return failureLimit == null ? statement : failureLimit.apply(statement);
+    }
+
+    /**
+     * Determine whether a run need not be run again, as it passed last time with the same datum and code. The spec is
+     * looked up here, ahead of the method invoker, so that the befores and afters of skipped runs need not be run;
+     * if it cannot be found, the run goes ahead, for the failure to be reported by the invoker.
+     */
+    private boolean isUnchanged(ParameterizedFrameworkMethod method) {
+        if (results == null) {
+            return false;
+        }
+        TestSpec spec;
         try {
-            return super.methodBlock(method);
+            spec = method.getTestSpec();
         }
-        finally {
-            testInstance.remove();
+        catch (RuntimeException e) {
+            return false;
+        }
+        return isUnchanged(method, spec);
+    }
+
+    private boolean isUnchanged(ParameterizedFrameworkMethod method, TestSpec spec) {
+        if (results != null && results.isUnchanged(method.getMethod(), method.getIndex(), spec.getDatum())) {
+            method.releaseTestSpec();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Get the test instance owned by the current worker thread, creating it if need be.
+     */
+    private Object workerTest() {
+        Object test = workerTest.get();
+        if (test == null) {
+            test = createTestSafely();
+            workerTest.set(test);
         }
+        return test;
+    }
+
+    /**
+     * Get the specs of a method, as returned when called on the test instance owned by the current worker thread.
+     */
+    private TestSpecCursor workerTestSpecs(FrameworkMethod method) {
+        Map<Method, TestSpecCursor> specsByMethod = workerTestSpecs.get();
+        TestSpecCursor specs = specsByMethod.get(method.getMethod());
+        if (specs == null) {
+            specs = openCursor(getTestSpecs(workerTest(), method));
+            specsByMethod.put(method.getMethod(), specs);
+        }
+        return specs;
     }
 
     @Override
-    protected Object createTest() throws Exception {
-        Object test = testInstance.get();
-        if (test != null) {
-            return test;
+    protected Statement childrenInvoker(RunNotifier notifier) {
+        Statement children = super.childrenInvoker(notifier);
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                Map<Description, ParameterizedFrameworkMethod> runs =
+                    (history == null && results == null && resultStream == null) ? null : describedRuns();
+                Function<Description, String> ids = (history == null && results == null) ? null : stableIds(runs);
+                RunListener historyListener = history == null ? null : history.listener(ids);
+                if (historyListener != null) {
+                    notifier.addListener(historyListener);
+                }
+                RunListener resultsListener = results == null ? null : results.listener(ids);
+                if (resultsListener != null) {
+                    notifier.addListener(resultsListener);
+                }
+                RunListener streamListener = resultStream == null ? null : resultStream.open(
+                    getTestClass().getJavaClass(), runs::get);
+                if (streamListener != null) {
+                    notifier.addListener(streamListener);
+                }
+                if (heap != null) {
+                    heap.start();
+                }
+                if (allocations != null) {
+                    allocations.start();
+                }
+                try {
+                    children.evaluate();
+                }
+                finally {
+                    closeCursors();
+                    pipelines.clear();
+                    if (timings != null) {
+                        timings.writeReport(getTestClass().getJavaClass());
+                    }
+                    if (heap != null) {
+                        heap.writeReport(getTestClass().getJavaClass());
+                    }
+                    if (benchmarkReport != null) {
+                        benchmarkReport.writeReport(getTestClass().getJavaClass());
+                    }
+                    if (baseline != null) {
+                        baseline.save();
+                    }
+                    if (allocations != null) {
+                        allocations.stop();
+                        allocations.writeReport(getTestClass().getJavaClass());
+                    }
+                    if (historyListener != null) {
+                        notifier.removeListener(historyListener);
+                        history.save();
+                    }
+                    if (resultsListener != null) {
+                        notifier.removeListener(resultsListener);
+                        results.save();
+                    }
+                    if (streamListener != null) {
+                        notifier.removeListener(streamListener);
+                        resultStream.close();
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Get the runs of parameterized methods of this runner, by their description. Runs are found by identity, as their
+     * names need not be unique.
+     */
+    private Map<Description, ParameterizedFrameworkMethod> describedRuns() {
+        Map<Description, ParameterizedFrameworkMethod> runs = new IdentityHashMap<>();
+        for (List<FrameworkMethod> methods: getTestMethods().values()) {
+            for (FrameworkMethod method: methods) {
+                if (method instanceof ParameterizedFrameworkMethod || method instanceof ParameterizedBatchFrameworkMethod) {
+                    datumMethods(method).forEach(run -> runs.put(run.getDescription(), run));
+                }
+            }
         }
-        else {
-            return super.createTest();
+        return runs;
+    }
+
+    /**
+     * Get a function giving the stable ids of the tests of this runner, by their description.
+     */
+    private Function<Description, String> stableIds(Map<Description, ParameterizedFrameworkMethod> runs) {
+        Class<?> testClass = getTestClass().getJavaClass();
+        Map<Description, String> runIds = new IdentityHashMap<>();
+        runs.forEach((description, run) ->
+            runIds.put(description, StableIds.of(testClass, run.getMethod(), run.getIndex())));
+        Map<Description, String> methodIds = new HashMap<>();
+        for (List<FrameworkMethod> methods: getTestMethods().values()) {
+            for (FrameworkMethod method: methods) {
+                if (! (method instanceof ParameterizedFrameworkMethod || method instanceof ParameterizedBatchFrameworkMethod)) {
+                    methodIds.put(describeChild(method), StableIds.of(testClass, method.getMethod()));
+                }
+            }
+        }
+        return description -> {
+            String id = runIds.get(description);
+            return id != null ? id : methodIds.get(description);
+        };
+    }
+
+    private TestSpecCursor openCursor(TestSpecs testSpecs) {
+        TestSpecCursor cursor = TestSpecCursor.of(testSpecs);
+        cursors.add(cursor);
+        return cursor;
+    }
+
+    private void closeCursors() {
+        for (TestSpecCursor cursor = cursors.poll(); cursor != null; cursor = cursors.poll()) {
+            cursor.close();
         }
     }
 
@@ -187,11 +954,33 @@ public class LambdataRunner extends BlockJUnit4ClassRunner {
     private List<FrameworkMethod> parameterizeMethod(FrameworkMethod method) {
         Object test = createTestSafely();
 
-        AtomicInteger count = new AtomicInteger();
+        TestSpecs testSpecs = getTestSpecs(test, method);
+        TestSpecCursor cursor = openCursor(testSpecs);
+        MethodRuns runs = new MethodRuns(method.getMethod(), cursor, test, NameTemplate.of(method.getMethod()));
+        List<ParameterizedFrameworkMethod> methods = new ArrayList<>();
+        try (Stream<TestSpec> specs = testSpecs.stream()) {
+            // runs keep the position of their datum among all the data, whichever shard they fall in, so that it
+            // identifies their spec however it is later looked up
+            Iterator<TestSpec> iterator = specs.iterator();
+            for (int count = 1; iterator.hasNext(); count++) {
+                TestSpec spec = iterator.next();
+                if (isSelected(method.getMethod(), count - 1)) {
+                    methods.add(new ParameterizedFrameworkMethod(method.getMethod(), runs, spec.getDatum(), count));
+                }
+            }
+        }
 
-        return getTestSpecs(test, method).stream()
-            .map(spec -> new ParameterizedFrameworkMethod(method.getMethod(), spec, test, count.incrementAndGet()))
-            .collect(Collectors.toList());
+        Batched batched = method.getAnnotation(Batched.class);
+        if (batched == null) {
+            return new ArrayList<>(methods);
+        }
+        int batchSize = Math.max(1, batched.size());
+        List<FrameworkMethod> batches = new ArrayList<>();
+        for (int start = 0; start < methods.size(); start += batchSize) {
+            batches.add(new ParameterizedBatchFrameworkMethod(
+                method.getMethod(), methods.subList(start, Math.min(start + batchSize, methods.size())), test));
+        }
+        return batches;
     }
 
     private Object createTestSafely() {
@@ -214,9 +1003,9 @@ public class LambdataRunner extends BlockJUnit4ClassRunner {
         }
     }
 
-    private List<TestSpec> getTestSpecs(Object test, FrameworkMethod method) {
+    private TestSpecs getTestSpecs(Object test, FrameworkMethod method) {
         try {
-            return ((TestSpecs) method.getMethod().invoke(test)).getSpecs();
+            return (TestSpecs) method.getMethod().invoke(test);
         }
         catch (InvocationTargetException e) {
             if (e.getCause() instanceof RuntimeException) {
@@ -0,0 +1,56 @@
+package org.lambdatarunner;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Fails the data of a parameterized test method run by {@link LambdataRunner} which become slower, not only those
+ * which become wrong. This takes effect only when a baseline directory is given by the {@code lambdata.baseline}
+ * system property (or {@code LAMBDATA_BASELINE} environment variable). When placed on a test class, this applies to
+ * each parameterized method of the class which is not itself annotated.
+ * <p>
+ * Each datum is run a number of times to warm up, and then timed over a number of samples. The first time a datum is
+ * timed, its samples are kept in the baseline file of the test class; after that, they are compared with those of the
+ * baseline by a one-sided Mann-Whitney U test, and the datum fails, showing both distributions, if its times are
+ * significantly greater than the baseline's, allowing for the given slowdown. As the test compares ranks rather than
+ * means, a few outliers, such as those caused by garbage collections, do not fail a datum. The baseline is kept as it
+ * is until {@code lambdata.baseline.update} is true, in which case the samples of every datum timed replace those of
+ * the baseline, and none fail. Data are matched with their baseline by their values rather than their positions, so
+ * rows may be added to or removed from a table without comparing the data after them with those of other rows; only
+ * the selection of {@link #data()} is by position.
+ * <p>
+ * Since the baseline is only meaningful on the machine it was measured on, it is best kept locally, rather than
+ * alongside the sources. Any failure of the datum itself fails it at once, without being timed further.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface LatencyBudget {
+    /**
+     * @return the slowdown allowed relative to the baseline, as a percentage
+     */
+    int maxSlowdown() default 10;
+
+    /**
+     * @return the number of runs to warm up with, which are not timed
+     */
+    int warmups() default 10;
+
+    /**
+     * @return the number of timed runs
+     */
+    int samples() default 30;
+
+    /**
+     * @return the significance level of the test, below which a slowdown is not put down to noise
+     */
+    double significance() default 0.01;
+
+    /**
+     * Unlike the baseline, which matches data by their values, these are positions in the data of the method: when a
+     * row is inserted or removed before a budgeted datum, they must be updated to keep selecting the same data.
+     * @return the zero-based positions of the data which have this budget, or none for every datum
+     */
+    int[] data() default {};
+}
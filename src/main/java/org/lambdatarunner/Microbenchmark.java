@@ -0,0 +1,49 @@
+package org.lambdatarunner;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Indicates that each datum of a parameterized test method run by {@link LambdataRunner} should be measured as a
+ * microbenchmark, by running its lambda repeatedly rather than once. This takes effect only when a report directory is
+ * given by the {@code lambdata.benchmarks} system property (or {@code LAMBDATA_BENCHMARKS} environment variable), so
+ * that the same tables can be checked quickly for correctness, and measured on demand. When placed on a test class,
+ * this applies to each parameterized method of the class which is not itself annotated.
+ * <p>
+ * Each datum is run for a number of warmup iterations, whose results are discarded, then for a number of measurement
+ * iterations, each of which runs the lambda over and over for the given time. The throughput of the datum, in
+ * operations per second, and percentiles of the time each operation took, are written to a JSON report for the test
+ * class. The befores and afters are run once around the whole of the benchmark of each datum, and a
+ * {@link DatumTimeout @DatumTimeout} applies to the whole of it too. A datum which fails in any operation fails at
+ * once, without being measured further.
+ * <p>
+ * Lambdas which compute a value without checking it should pass it to {@link Blackhole#consume(Object)}, so that the
+ * computation is not optimized away. Each operation is timed individually, so the time taken to read the clock, a few
+ * tens of nanoseconds, is included in the results, which makes them unsuitable for the very shortest lambdas.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface Microbenchmark {
+    /**
+     * @return the number of warmup iterations
+     */
+    int warmupIterations() default 5;
+
+    /**
+     * @return the number of measurement iterations
+     */
+    int iterations() default 10;
+
+    /**
+     * @return the time each iteration runs for
+     */
+    long time() default 100;
+
+    /**
+     * @return the unit of {@link #time()}
+     */
+    TimeUnit unit() default TimeUnit.MILLISECONDS;
+}
@@ -0,0 +1,22 @@
+package org.lambdatarunner;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Indicates that the individual runs of a test class run by {@link LambdataRunner} may be executed concurrently, on a
+ * fork-join pool. Because the test lambdas are bound to the test instance which created them, each worker thread
+ * creates its own instance of the test class, and calls the spec methods on it again, running the spec at the same
+ * position as the datum being run. Consequently, spec methods in such classes must return the same data, in the same
+ * order, each time they are called.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Parallel {
+    /**
+     * @return the number of worker threads to use; if not positive, the number of available processors is used.
+     */
+    int threads() default 0;
+}
@@ -1,15 +1,60 @@
 package org.lambdatarunner;
 
 import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * The test specs returned by a parameterized test method. Specs may either be held in a list, or be produced lazily
+ * by a source of streams; in the latter case, {@link LambdataRunner} reads the source once to describe the tests, and
+ * again as the tests are run, so that specs need not all be held in memory at once. Such sources must produce the same
+ * specs, in the same order, each time they are asked for a stream.
+ */
 public class TestSpecs {
     private final List<TestSpec> specs;
 
+    private final Supplier<? extends Stream<? extends TestSpec>> source;
+
     public TestSpecs(List<TestSpec> specs) {
         this.specs = specs;
+        this.source = null;
+    }
+
+    /**
+     * Create test specs backed by a lazy source.
+     * @param source a supplier of streams of test specs; each stream will be closed once it is no longer used.
+     */
+    public TestSpecs(Supplier<? extends Stream<? extends TestSpec>> source) {
+        this.specs = null;
+        this.source = source;
     }
 
+    /**
+     * Get the test specs as a list. For specs backed by a lazy source, this reads the entire source into memory.
+     * @return the test specs
+     */
     public List<TestSpec> getSpecs() {
-        return specs;
+        if (specs != null) {
+            return specs;
+        }
+        try (Stream<TestSpec> stream = stream()) {
+            return stream.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Get a new stream of the test specs. The caller is responsible for closing the stream.
+     * @return a stream of the test specs
+     */
+    public Stream<TestSpec> stream() {
+        return (specs != null) ? specs.stream() : source.get().map(TestSpec.class::cast);
+    }
+
+    /**
+     * @return true if these specs are backed by a lazy source, rather than a list.
+     */
+    public boolean isLazy() {
+        return specs == null;
     }
 }
@@ -0,0 +1,229 @@
+package org.lambdatarunner.internal;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.BiPredicate;
+
+import org.lambdatarunner.AsyncTestSpec;
+import org.lambdatarunner.Datum;
+import org.lambdatarunner.TestSpec;
+
+/**
+ * Keeps a number of the asynchronous data of a batch in flight at once. As each datum of the batch is asked for, the
+ * asynchronous data following it are started, up to the size of the window, each on a thread of its own; the datum
+ * asked for is then given as a spec which waits for its result. Specs are looked up in order, once each, so that lazy
+ * sources of specs are read sequentially. A datum which was started but is not waited for, say as it was skipped once
+ * too many data failed, is cancelled when the next datum is asked for.
+ */
+public class AsyncWindow implements AutoCloseable {
+    private static class Threads {
+        // virtual threads, where the JVM has them, since the data mostly wait; they are looked up reflectively, as
+        // the runner is built for Java 8
+        static final Executor EXECUTOR = create();
+
+        private static Executor create() {
+            try {
+                return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            }
+            catch (ReflectiveOperationException | RuntimeException e) {
+                return Executors.newCachedThreadPool(runnable -> {
+                    Thread thread = new Thread(runnable, "lambdata-async");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+    }
+
+    private final List<ParameterizedFrameworkMethod> methods;
+
+    private final int inFlight;
+
+    private final BiPredicate<ParameterizedFrameworkMethod, TestSpec> mayStart;
+
+    // the specs looked up ahead of the datum being run, by position in the batch
+    private final Map<Integer, TestSpec> specs = new HashMap<>();
+
+    // the lookups which failed ahead of the datum being run, by position in the batch
+    private final Map<Integer, RuntimeException> failures = new HashMap<>();
+
+    // the started spec last asked for, which is cancelled if it was not waited for
+    private StartedSpec current;
+
+    private int next;
+
+    /**
+     * Create a new instance.
+     * @param methods the runs of the batch
+     * @param inFlight the number of data to have in flight at once
+     * @param mayStart whether the datum of a run may be started ahead of time, rather than being skipped
+     */
+    public AsyncWindow(
+        List<ParameterizedFrameworkMethod> methods,
+        int inFlight,
+        BiPredicate<ParameterizedFrameworkMethod, TestSpec> mayStart) {
+        this.methods = methods;
+        this.inFlight = inFlight;
+        this.mayStart = mayStart;
+    }
+
+    /**
+     * Get the spec of a run of the batch, starting the data following it.
+     * @param position the position of the run in the batch; runs must be asked for in order
+     * @return the spec of the run
+     */
+    public TestSpec get(int position) {
+        cancelCurrent();
+        for (; next < methods.size() && next < position + inFlight; next++) {
+            ParameterizedFrameworkMethod method = methods.get(next);
+            TestSpec spec;
+            try {
+                spec = method.getTestSpec();
+            }
+            catch (RuntimeException e) {
+                // kept, so that the failure is reported against its own run
+                failures.put(next, e);
+                continue;
+            }
+            specs.put(next, (spec instanceof AsyncTestSpec && mayStart.test(method, spec))
+                ? new StartedSpec((AsyncTestSpec) spec)
+                : spec);
+        }
+        RuntimeException failure = failures.remove(position);
+        if (failure != null) {
+            throw failure;
+        }
+        TestSpec spec = specs.remove(position);
+        if (spec instanceof StartedSpec) {
+            current = (StartedSpec) spec;
+        }
+        return spec != null ? spec : methods.get(position).getTestSpec();
+    }
+
+    private void cancelCurrent() {
+        if (current != null) {
+            // a datum which completed, having been waited for, is not affected
+            current.cancel();
+            current = null;
+        }
+    }
+
+    /**
+     * Cancel the data which were started but not asked for.
+     */
+    @Override
+    public void close() {
+        cancelCurrent();
+        for (TestSpec spec: specs.values()) {
+            if (spec instanceof StartedSpec) {
+                ((StartedSpec) spec).cancel();
+            }
+        }
+        specs.clear();
+        failures.clear();
+    }
+
+    /**
+     * Wait for the result of an asynchronous test, rethrowing the exception it failed with, if any. If the thread is
+     * interrupted while waiting, the test is cancelled.
+     * @param stage the result of the test, or null if it has already completed
+     * @throws Throwable the exception the test failed with
+     */
+    public static void await(CompletionStage<?> stage) throws Throwable {
+        if (stage == null) {
+            return;
+        }
+        CompletableFuture<?> future = stage.toCompletableFuture();
+        try {
+            future.get();
+        }
+        catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            throw cause;
+        }
+        catch (CancellationException e) {
+            throw new AssertionError("Test was cancelled", e);
+        }
+    }
+
+    private static class StartedSpec implements TestSpec {
+        private final Datum datum;
+
+        private final CompletableFuture<Object> result;
+
+        // the stage returned by the test, which is cancelled along with the result
+        private volatile CompletionStage<?> started;
+
+        private volatile boolean cancelled;
+
+        StartedSpec(AsyncTestSpec spec) {
+            datum = spec.getDatum();
+            result = CompletableFuture.supplyAsync(() -> {
+                    if (cancelled) {
+                        throw new CancellationException();
+                    }
+                    CompletionStage<?> stage;
+                    try {
+                        stage = spec.start();
+                    }
+                    catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                    started = stage;
+                    // the spec may have been cancelled while it was starting
+                    if (cancelled) {
+                        cancel(stage);
+                    }
+                    return stage;
+                }, Threads.EXECUTOR)
+                .thenCompose(StartedSpec::orCompleted);
+        }
+
+        void cancel() {
+            cancelled = true;
+            result.cancel(true);
+            cancel(started);
+        }
+
+        private static void cancel(CompletionStage<?> stage) {
+            try {
+                if (stage != null) {
+                    stage.toCompletableFuture().cancel(true);
+                }
+            }
+            catch (UnsupportedOperationException e) {
+                // a stage which cannot be converted cannot be cancelled either
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static CompletionStage<Object> orCompleted(CompletionStage<?> stage) {
+            return stage == null ? CompletableFuture.completedFuture(null) : (CompletionStage<Object>) stage;
+        }
+
+        @Override
+        public void run() throws Throwable {
+            await(result);
+        }
+
+        @Override
+        public Datum getDatum() {
+            return datum;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.lambdatarunner.internal;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Collects the results of the microbenchmarks of the data of a test class, and writes them as a JSON report. Only a
+ * summary of each datum is kept: its throughput, as the mean, minimum and maximum over the measurement iterations, and
+ * percentiles of the latencies of its operations.
+ */
+public class BenchmarkReport {
+
+    private static class Result {
+        final String method;
+        final int index;
+        final String name;
+        final int warmupIterations;
+        final int iterations;
+        final long operations;
+        final double meanOpsPerSecond;
+        final double minOpsPerSecond;
+        final double maxOpsPerSecond;
+        final long[] percentiles;
+        final long maxNanos;
+
+        Result(ParameterizedFrameworkMethod method, int warmupIterations, long operations, double[] opsPerSecond,
+               LatencyHistogram latencies) {
+            this.method = method.getMethod().getName();
+            this.index = method.getIndex();
+            this.name = method.getDescription().getMethodName();
+            this.warmupIterations = warmupIterations;
+            this.iterations = opsPerSecond.length;
+            this.operations = operations;
+            this.meanOpsPerSecond = Arrays.stream(opsPerSecond).average().orElse(0);
+            this.minOpsPerSecond = Arrays.stream(opsPerSecond).min().orElse(0);
+            this.maxOpsPerSecond = Arrays.stream(opsPerSecond).max().orElse(0);
+            this.percentiles = Arrays.stream(PERCENTILES).mapToLong(latencies::getPercentile).toArray();
+            this.maxNanos = latencies.getMax();
+        }
+    }
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private static final String[] PERCENTILE_NAMES = {"p50Nanos", "p90Nanos", "p99Nanos", "p999Nanos"};
+
+    private final List<Result> results = new ArrayList<>();
+
+    /**
+     * Create an instance if microbenchmarks have been requested via the {@code lambdata.benchmarks} setting, which
+     * names the directory to write reports to.
+     * @return a new instance, or null if microbenchmarks have not been requested
+     */
+    public static BenchmarkReport fromSettings() {
+        return Settings.get("benchmarks") == null ? null : new BenchmarkReport();
+    }
+
+    /**
+     * Record the results of the microbenchmark of a run.
+     * @param method the run
+     * @param warmupIterations the number of warmup iterations
+     * @param operations the number of operations run during the measurement iterations
+     * @param opsPerSecond the throughput of each measurement iteration
+     * @param latencies the latencies of the operations run during the measurement iterations
+     */
+    public void record(ParameterizedFrameworkMethod method, int warmupIterations, long operations,
+                       double[] opsPerSecond, LatencyHistogram latencies) {
+        Result result = new Result(method, warmupIterations, operations, opsPerSecond, latencies);
+        synchronized (results) {
+            results.add(result);
+        }
+    }
+
+    /**
+     * Write the report for a test class to the directory named by the {@code lambdata.benchmarks} setting.
+     * @param testClass the test class
+     */
+    public void writeReport(Class<?> testClass) {
+        Path file = Settings.getPath("benchmarks").resolve(testClass.getName() + ".benchmarks.json");
+        try {
+            Files.createDirectories(file.getParent());
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writeReport(testClass, new JsonWriter(writer));
+            }
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Unable to write benchmark report " + file, e);
+        }
+    }
+
+    void writeReport(Class<?> testClass, JsonWriter json) throws IOException {
+        json.beginObject().name("class").value(testClass.getName());
+        json.name("benchmarks").beginArray();
+        synchronized (results) {
+            for (Result result: results) {
+                json.beginObject()
+                    .name("method").value(result.method)
+                    .name("index").value(result.index)
+                    .name("name").value(result.name)
+                    .name("warmupIterations").value(result.warmupIterations)
+                    .name("iterations").value(result.iterations)
+                    .name("operations").value(result.operations)
+                    .name("opsPerSecond").value(result.meanOpsPerSecond)
+                    .name("minOpsPerSecond").value(result.minOpsPerSecond)
+                    .name("maxOpsPerSecond").value(result.maxOpsPerSecond);
+                for (int i = 0; i < PERCENTILES.length; i++) {
+                    json.name(PERCENTILE_NAMES[i]).value(result.percentiles[i]);
+                }
+                json.name("maxNanos").value(result.maxNanos)
+                    .endObject();
+            }
+        }
+        json.endArray();
+        json.endObject();
+    }
+}
@@ -0,0 +1,238 @@
+package org.lambdatarunner.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Generates combinations of parameter values, each given as an array of indexes into the values of each parameter.
+ * Either every combination is generated, or a covering array of a given strength t: a set of combinations in which
+ * every combination of values of every t parameters appears at least once. Covering arrays are built greedily, adding
+ * at each step a combination that covers as many of the not yet covered t-tuples as can be found, so they are not
+ * minimal, but are typically far smaller than the full product, and always the same for the same sizes.
+ */
+public final class CoveringArray {
+    private CoveringArray() {} // prevent instantiation
+
+    /**
+     * Create a source of every combination of values, in lexicographic order, generated lazily.
+     * @param sizes the number of values of each parameter
+     * @return a source of combinations
+     */
+    public static Supplier<Stream<int[]>> allCombinations(int... sizes) {
+        int[] copy = sizes.clone();
+        return () -> StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(new Odometer(copy), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Create a source of combinations of values covering every combination of values of every {@code strength}
+     * parameters. The combinations are computed when first needed, and reused thereafter.
+     * @param strength the number of parameters whose combinations must all be covered
+     * @param sizes the number of values of each parameter
+     * @return a source of combinations
+     * @throws IllegalArgumentException if {@code strength} is less than 1
+     */
+    public static Supplier<Stream<int[]>> tWise(int strength, int... sizes) {
+        if (strength < 1) {
+            throw new IllegalArgumentException("Strength must be at least 1, but was " + strength);
+        }
+        if (strength >= sizes.length) {
+            return allCombinations(sizes);
+        }
+        int[] copy = sizes.clone();
+        return new Supplier<Stream<int[]>>() {
+            private List<int[]> rows;
+
+            @Override
+            public synchronized Stream<int[]> get() {
+                if (rows == null) {
+                    rows = generate(strength, copy);
+                }
+                return rows.stream().map(int[]::clone);
+            }
+        };
+    }
+
+    static List<int[]> generate(int strength, int[] sizes) {
+        List<int[]> rows = new ArrayList<>();
+        if (Arrays.stream(sizes).anyMatch(size -> size == 0)) {
+            return rows;
+        }
+        List<int[]> combinations = parameterCombinations(sizes.length, strength);
+        // for each combination of parameters, which of its tuples of values are not yet covered
+        List<BitSet> uncovered = new ArrayList<>();
+        long remaining = 0;
+        for (int[] parameters: combinations) {
+            int tuples = tupleCount(parameters, sizes);
+            BitSet bits = new BitSet(tuples);
+            bits.set(0, tuples);
+            uncovered.add(bits);
+            remaining += tuples;
+        }
+        // for each parameter, the combinations containing it
+        List<List<Integer>> containing = new ArrayList<>();
+        for (int parameter = 0; parameter < sizes.length; parameter++) {
+            List<Integer> indexes = new ArrayList<>();
+            for (int c = 0; c < combinations.size(); c++) {
+                if (Arrays.binarySearch(combinations.get(c), parameter) >= 0) {
+                    indexes.add(c);
+                }
+            }
+            containing.add(indexes);
+        }
+
+        while (remaining > 0) {
+            int[] row = new int[sizes.length];
+            boolean[] fixed = new boolean[sizes.length];
+
+            // seed the row with the first uncovered tuple, so that every row covers at least one
+            int seed = 0;
+            while (uncovered.get(seed).isEmpty()) {
+                seed++;
+            }
+            int[] seedParameters = combinations.get(seed);
+            int[] seedValues = tupleValues(uncovered.get(seed).nextSetBit(0), seedParameters, sizes);
+            for (int i = 0; i < seedParameters.length; i++) {
+                row[seedParameters[i]] = seedValues[i];
+                fixed[seedParameters[i]] = true;
+            }
+
+            // fix each other parameter in turn to the value covering the most tuples among the parameters fixed so far
+            for (int parameter = 0; parameter < sizes.length; parameter++) {
+                if (fixed[parameter]) {
+                    continue;
+                }
+                fixed[parameter] = true;
+                int best = 0;
+                int bestCovered = -1;
+                for (int value = 0; value < sizes[parameter]; value++) {
+                    row[parameter] = value;
+                    int covered = 0;
+                    for (int c: containing.get(parameter)) {
+                        int[] parameters = combinations.get(c);
+                        if (allFixed(parameters, fixed) && uncovered.get(c).get(tupleIndex(row, parameters, sizes))) {
+                            covered++;
+                        }
+                    }
+                    if (covered > bestCovered) {
+                        best = value;
+                        bestCovered = covered;
+                    }
+                }
+                row[parameter] = best;
+            }
+
+            for (int c = 0; c < combinations.size(); c++) {
+                BitSet bits = uncovered.get(c);
+                int tuple = tupleIndex(row, combinations.get(c), sizes);
+                if (bits.get(tuple)) {
+                    bits.clear(tuple);
+                    remaining--;
+                }
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static boolean allFixed(int[] parameters, boolean[] fixed) {
+        for (int parameter: parameters) {
+            if (!fixed[parameter]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int tupleCount(int[] parameters, int[] sizes) {
+        long count = 1;
+        for (int parameter: parameters) {
+            count *= sizes[parameter];
+            if (count > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Too many combinations of values to cover");
+            }
+        }
+        return (int) count;
+    }
+
+    private static int tupleIndex(int[] row, int[] parameters, int[] sizes) {
+        int index = 0;
+        for (int parameter: parameters) {
+            index = index * sizes[parameter] + row[parameter];
+        }
+        return index;
+    }
+
+    private static int[] tupleValues(int index, int[] parameters, int[] sizes) {
+        int[] values = new int[parameters.length];
+        for (int i = parameters.length - 1; i >= 0; i--) {
+            values[i] = index % sizes[parameters[i]];
+            index /= sizes[parameters[i]];
+        }
+        return values;
+    }
+
+    // every ascending combination of strength of the parameters 0 to count - 1, in lexicographic order
+    private static List<int[]> parameterCombinations(int count, int strength) {
+        List<int[]> combinations = new ArrayList<>();
+        int[] combination = new int[strength];
+        for (int i = 0; i < strength; i++) {
+            combination[i] = i;
+        }
+        while (true) {
+            combinations.add(combination.clone());
+            int i = strength - 1;
+            while (i >= 0 && combination[i] == count - strength + i) {
+                i--;
+            }
+            if (i < 0) {
+                return combinations;
+            }
+            combination[i]++;
+            for (int j = i + 1; j < strength; j++) {
+                combination[j] = combination[j - 1] + 1;
+            }
+        }
+    }
+
+    private static class Odometer implements Iterator<int[]> {
+        private final int[] sizes;
+        private int[] next;
+
+        Odometer(int[] sizes) {
+            this.sizes = sizes;
+            next = Arrays.stream(sizes).anyMatch(size -> size == 0) ? null : new int[sizes.length];
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public int[] next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            int[] current = next.clone();
+            int i = sizes.length - 1;
+            while (i >= 0 && ++next[i] == sizes[i]) {
+                next[i] = 0;
+                i--;
+            }
+            if (i < 0) {
+                next = null;
+            }
+            return current;
+        }
+    }
+}
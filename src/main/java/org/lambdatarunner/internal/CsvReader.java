@@ -0,0 +1,123 @@
+package org.lambdatarunner.internal;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the records of a CSV file, as described by RFC 4180, one at a time. Fields may be quoted, in which case they
+ * may contain separators, line breaks and doubled quotes; blank lines are skipped.
+ */
+public class CsvReader implements Iterator<String[]>, Closeable {
+    private static final int QUOTE = '"';
+
+    private final Path file;
+
+    private final MappedFileReader reader;
+
+    private final int separator;
+
+    private final FieldBuffer field = new FieldBuffer();
+
+    private final List<String> fields = new ArrayList<>();
+
+    private String[] next;
+
+    private long record;
+
+    /**
+     * Open a file for reading.
+     * @param file the file to read
+     * @param separator the character separating fields, which must be ASCII
+     * @param skipHeader whether to skip the first record
+     */
+    public CsvReader(Path file, char separator, boolean skipHeader) {
+        if (separator >= 0x80 || separator == QUOTE || separator == '\r' || separator == '\n') {
+            throw new IllegalArgumentException("Unsupported separator: " + separator);
+        }
+        this.file = file;
+        this.reader = new MappedFileReader(file);
+        this.separator = separator;
+        if (skipHeader) {
+            readRecord();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = readRecord();
+        }
+        return next != null;
+    }
+
+    @Override
+    public String[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String[] record = next;
+        next = null;
+        return record;
+    }
+
+    private String[] readRecord() {
+        int c = reader.read();
+        while (c == '\r' || c == '\n') {
+            c = reader.read();
+        }
+        if (c == -1) {
+            return null;
+        }
+        record++;
+        fields.clear();
+        while (true) {
+            if (c == QUOTE) {
+                while (true) {
+                    c = reader.read();
+                    if (c == -1) {
+                        throw malformed("unterminated quoted field");
+                    }
+                    else if (c != QUOTE) {
+                        field.add(c);
+                    }
+                    else if (reader.peek() == QUOTE) {
+                        field.add(reader.read());
+                    }
+                    else {
+                        c = reader.read();
+                        break;
+                    }
+                }
+            }
+            else {
+                while (c != separator && c != '\r' && c != '\n' && c != -1) {
+                    field.add(c);
+                    c = reader.read();
+                }
+            }
+            fields.add(field.take());
+            if (c == separator) {
+                c = reader.read();
+            }
+            else if (c == '\r' || c == '\n' || c == -1) {
+                return fields.toArray(new String[fields.size()]);
+            }
+            else {
+                throw malformed("unexpected character after quoted field");
+            }
+        }
+    }
+
+    private IllegalStateException malformed(String problem) {
+        return new IllegalStateException("Malformed CSV in " + file + " at record " + record + ": " + problem);
+    }
+
+    @Override
+    public void close() {
+        reader.close();
+    }
+}
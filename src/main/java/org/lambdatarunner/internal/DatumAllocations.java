@@ -0,0 +1,418 @@
+package org.lambdatarunner.internal;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+import org.lambdatarunner.AllocationBudget;
+
+/**
+ * Measures the memory allocated by each datum of a test class, enforcing the {@link AllocationBudget @AllocationBudget}
+ * of its methods, and optionally collects a JSON report of the allocations and of the garbage collections which
+ * happened while the data ran. Allocations are measured with the per-thread allocation counters of the JVM, so only
+ * the allocations of the thread running a datum are counted; where the JVM has no such counters, nothing is measured.
+ * <p>
+ * Each collection is linked to the data which were running at any time during it, found by comparing the number of
+ * collections each collector had done before and after each datum with the number of the collection. Collections are
+ * reported through notifications some time after they end, so those at the very end of a class may be missing.
+ * Collections are stop-the-world only in part for some collectors, so the duration reported is that of the whole
+ * collection, which is an upper bound on the pause.
+ */
+public class DatumAllocations {
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+    // the number of runs during which collections happened which are remembered, beyond which they are not linked
+    private static final int MAX_OVERLAPS = 10000;
+
+    // the number of collections reported, beyond which they are only counted
+    private static final int MAX_COLLECTIONS = 1000;
+
+    // the number of runs linked to each collection, beyond which they are only counted
+    private static final int MAX_LINKED_RUNS = 10;
+
+    /**
+     * A run being measured.
+     */
+    public static class Measurement {
+        final ParameterizedFrameworkMethod method;
+        final long startBytes;
+        // the number of collections done by each collector when the run started, if a report has been requested
+        final long[] startCollections;
+
+        Measurement(ParameterizedFrameworkMethod method, long startBytes, long[] startCollections) {
+            this.method = method;
+            this.startBytes = startBytes;
+            this.startCollections = startCollections;
+        }
+    }
+
+    private static class Allocation {
+        final ParameterizedFrameworkMethod method;
+        final long bytes;
+
+        Allocation(ParameterizedFrameworkMethod method, long bytes) {
+            this.method = method;
+            this.bytes = bytes;
+        }
+    }
+
+    // a run during which a collector did collections, numbered after the first and up to the last
+    private static class Overlap {
+        final String name;
+        final String collector;
+        final long first;
+        final long last;
+
+        Overlap(String name, String collector, long first, long last) {
+            this.name = name;
+            this.collector = collector;
+            this.first = first;
+            this.last = last;
+        }
+    }
+
+    static class Collection {
+        final String collector;
+        final long id;
+        final String action;
+        final String cause;
+        final long startMillis;
+        final long durationMillis;
+
+        Collection(String collector, long id, String action, String cause, long startMillis, long durationMillis) {
+            this.collector = collector;
+            this.id = id;
+            this.action = action;
+            this.cause = cause;
+            this.startMillis = startMillis;
+            this.durationMillis = durationMillis;
+        }
+    }
+
+    private static final Comparator<Allocation> SMALLEST_FIRST = Comparator.comparingLong(allocation -> allocation.bytes);
+
+    private final Map<Method, Long> budgets;
+
+    // set if a report has been requested
+    private final Path directory;
+
+    private final int largestCount;
+
+    private final Map<Method, LatencyHistogram> histograms = new LinkedHashMap<>();
+
+    private final PriorityQueue<Allocation> largest = new PriorityQueue<>(SMALLEST_FIRST);
+
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+
+    private final List<Overlap> overlaps = new ArrayList<>();
+
+    private final List<Collection> collections = new ArrayList<>();
+
+    private int droppedCollections;
+
+    private final NotificationListener listener = this::collected;
+
+    DatumAllocations(Map<Method, Long> budgets, Path directory, int largestCount) {
+        this.budgets = budgets;
+        this.directory = directory;
+        this.largestCount = largestCount;
+    }
+
+    /**
+     * Create an instance for a test class if any of its methods has an {@link AllocationBudget @AllocationBudget}, or
+     * if allocation reports have been requested via the {@code lambdata.allocations} setting, which names the
+     * directory to write reports to; the number of largest allocations reported is controlled by the
+     * {@code lambdata.allocations.largest} setting.
+     * @param testClass the test class
+     * @param methods the parameterized test methods of the class
+     * @return a new instance, or null if there is nothing to measure, or the JVM cannot measure allocations
+     */
+    public static DatumAllocations of(Class<?> testClass, List<Method> methods) {
+        if (THREADS == null) {
+            return null;
+        }
+        Map<Method, Long> budgets = new HashMap<>();
+        for (Method method: methods) {
+            AllocationBudget budget = method.getAnnotation(AllocationBudget.class);
+            if (budget == null) {
+                budget = testClass.getAnnotation(AllocationBudget.class);
+            }
+            if (budget != null) {
+                budgets.put(method, budget.value());
+            }
+        }
+        Path directory = Settings.getPath("allocations");
+        return budgets.isEmpty() && directory == null
+            ? null
+            : new DatumAllocations(budgets, directory, Settings.getInt("allocations.largest", 10));
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean threads =
+                    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+                if (threads.isThreadAllocatedMemorySupported()) {
+                    if (! threads.isThreadAllocatedMemoryEnabled()) {
+                        threads.setThreadAllocatedMemoryEnabled(true);
+                    }
+                    return threads;
+                }
+            }
+        }
+        catch (LinkageError | RuntimeException e) {
+            // not measured on this JVM
+        }
+        return null;
+    }
+
+    /**
+     * Start listening for garbage collections, if a report has been requested.
+     */
+    public void start() {
+        if (directory != null) {
+            emitters().forEach(emitter -> emitter.addNotificationListener(listener, null, null));
+        }
+    }
+
+    /**
+     * Stop listening for garbage collections.
+     */
+    public void stop() {
+        if (directory != null) {
+            emitters().forEach(emitter -> {
+                try {
+                    emitter.removeNotificationListener(listener);
+                }
+                catch (ListenerNotFoundException e) {
+                    // not listening
+                }
+            });
+        }
+    }
+
+    private Stream<NotificationEmitter> emitters() {
+        return collectors.stream()
+            .filter(NotificationEmitter.class::isInstance)
+            .map(NotificationEmitter.class::cast);
+    }
+
+    /**
+     * Start measuring a run, on the thread about to run it.
+     * @param method the run
+     * @return the measurement
+     */
+    public Measurement start(ParameterizedFrameworkMethod method) {
+        long[] startCollections = directory == null ? null : collectionCounts();
+        return new Measurement(method, THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()), startCollections);
+    }
+
+    /**
+     * Finish measuring a run, on the thread which ran it, and record the memory it allocated.
+     * @param measurement the measurement
+     * @return the number of bytes allocated
+     */
+    public long finish(Measurement measurement) {
+        long bytes = THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) - measurement.startBytes;
+        if (directory != null) {
+            long[] endCollections = collectionCounts();
+            for (int i = 0; i < endCollections.length; i++) {
+                if (endCollections[i] > measurement.startCollections[i]) {
+                    overlapped(measurement.method.getDescription().getMethodName(), collectors.get(i).getName(),
+                        measurement.startCollections[i] + 1, endCollections[i]);
+                }
+            }
+            record(measurement.method, bytes);
+        }
+        return bytes;
+    }
+
+    /**
+     * Record that a collector did collections while a run was in progress.
+     * @param name the name of the run
+     * @param collector the name of the collector
+     * @param first the number of the first collection done during the run
+     * @param last the number of the last collection done during the run
+     */
+    void overlapped(String name, String collector, long first, long last) {
+        synchronized (overlaps) {
+            if (overlaps.size() < MAX_OVERLAPS) {
+                overlaps.add(new Overlap(name, collector, first, last));
+            }
+        }
+    }
+
+    private long[] collectionCounts() {
+        long[] counts = new long[collectors.size()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = collectors.get(i).getCollectionCount();
+        }
+        return counts;
+    }
+
+    /**
+     * Check that a run allocated no more than the budget of its method.
+     * @param method the run
+     * @param bytes the number of bytes it allocated
+     * @throws AssertionError if the run allocated more than the budget
+     */
+    public void checkBudget(ParameterizedFrameworkMethod method, long bytes) {
+        Long budget = budgets.get(method.getMethod());
+        if (budget != null && bytes > budget) {
+            throw new AssertionError("Allocated " + bytes + " bytes, over the budget of " + budget + " bytes");
+        }
+    }
+
+    private void record(ParameterizedFrameworkMethod method, long bytes) {
+        synchronized (histograms) {
+            histograms.computeIfAbsent(method.getMethod(), m -> new LatencyHistogram()).record(bytes);
+        }
+        synchronized (largest) {
+            if (largest.size() < largestCount) {
+                largest.add(new Allocation(method, bytes));
+            }
+            else if (largestCount > 0 && largest.peek().bytes < bytes) {
+                largest.poll();
+                largest.add(new Allocation(method, bytes));
+            }
+        }
+    }
+
+    private void collected(Notification notification, Object handback) {
+        if (! GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info =
+            GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        GcInfo gcInfo = info.getGcInfo();
+        // the id of a collection is the number of collections done by its collector, including itself
+        collected(new Collection(info.getGcName(), gcInfo.getId(), info.getGcAction(), info.getGcCause(),
+            gcInfo.getStartTime(), gcInfo.getDuration()));
+    }
+
+    /**
+     * Record a collection, as reported by its collector.
+     * @param collection the collection
+     */
+    void collected(Collection collection) {
+        synchronized (collections) {
+            if (collections.size() == MAX_COLLECTIONS) {
+                droppedCollections++;
+                return;
+            }
+            collections.add(collection);
+        }
+    }
+
+    /**
+     * Write the report for a test class to the directory named by the {@code lambdata.allocations} setting, if a
+     * report has been requested.
+     * @param testClass the test class
+     */
+    public void writeReport(Class<?> testClass) {
+        if (directory == null) {
+            return;
+        }
+        Path file = directory.resolve(testClass.getName() + ".allocations.json");
+        try {
+            Files.createDirectories(file.getParent());
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writeReport(testClass, new JsonWriter(writer));
+            }
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Unable to write allocation report " + file, e);
+        }
+    }
+
+    void writeReport(Class<?> testClass, JsonWriter json) throws IOException {
+        json.beginObject().name("class").value(testClass.getName());
+        json.name("methods").beginArray();
+        synchronized (histograms) {
+            for (Map.Entry<Method, LatencyHistogram> entry: histograms.entrySet()) {
+                LatencyHistogram histogram = entry.getValue();
+                json.beginObject()
+                    .name("method").value(entry.getKey().getName())
+                    .name("count").value(histogram.getCount())
+                    .name("totalBytes").value(histogram.getTotal())
+                    .name("meanBytes").value(histogram.getMean())
+                    .name("minBytes").value(histogram.getMin())
+                    .name("p50Bytes").value(histogram.getPercentile(50))
+                    .name("p90Bytes").value(histogram.getPercentile(90))
+                    .name("p99Bytes").value(histogram.getPercentile(99))
+                    .name("maxBytes").value(histogram.getMax())
+                    .endObject();
+            }
+        }
+        json.endArray();
+        json.name("largest").beginArray();
+        List<Allocation> allocations;
+        synchronized (largest) {
+            allocations = new ArrayList<>(largest);
+        }
+        allocations.sort(SMALLEST_FIRST.reversed());
+        for (Allocation allocation: allocations) {
+            json.beginObject()
+                .name("method").value(allocation.method.getMethod().getName())
+                .name("index").value(allocation.method.getIndex())
+                .name("name").value(allocation.method.getDescription().getMethodName())
+                .name("bytes").value(allocation.bytes)
+                .endObject();
+        }
+        json.endArray();
+        json.name("collections").beginArray();
+        List<Overlap> overlapping;
+        synchronized (overlaps) {
+            overlapping = new ArrayList<>(overlaps);
+        }
+        synchronized (collections) {
+            for (Collection collection: collections) {
+                List<String> runs = overlapping.stream()
+                    .filter(overlap -> overlap.collector.equals(collection.collector)
+                        && overlap.first <= collection.id && collection.id <= overlap.last)
+                    .map(overlap -> overlap.name)
+                    .collect(Collectors.toList());
+                json.beginObject()
+                    .name("collector").value(collection.collector)
+                    .name("action").value(collection.action)
+                    .name("cause").value(collection.cause)
+                    .name("startMillis").value(collection.startMillis)
+                    .name("durationMillis").value(collection.durationMillis)
+                    .name("tests").beginArray();
+                for (String run: runs.subList(0, Math.min(runs.size(), MAX_LINKED_RUNS))) {
+                    json.value(run);
+                }
+                json.endArray();
+                if (runs.size() > MAX_LINKED_RUNS) {
+                    json.name("moreTests").value(runs.size() - MAX_LINKED_RUNS);
+                }
+                json.endObject();
+            }
+            json.endArray();
+            json.name("droppedCollections").value(droppedCollections);
+        }
+        json.endObject();
+    }
+}
@@ -0,0 +1,101 @@
+package org.lambdatarunner.internal;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.runners.model.Statement;
+import org.lambdatarunner.Microbenchmark;
+import org.lambdatarunner.TestSpec;
+
+/**
+ * Runs the data of a {@link Microbenchmark @Microbenchmark} method as microbenchmarks: each datum's spec is run
+ * repeatedly, for a number of warmup iterations and then of measurement iterations of a fixed time, and its throughput
+ * and latencies are recorded in a {@link BenchmarkReport}.
+ */
+public class DatumBenchmark {
+    private final int warmupIterations;
+
+    private final int iterations;
+
+    private final long iterationNanos;
+
+    /**
+     * Create a new instance.
+     * @param warmupIterations the number of warmup iterations
+     * @param iterations the number of measurement iterations
+     * @param time the time each iteration runs for
+     * @param unit the unit of {@code time}
+     */
+    public DatumBenchmark(int warmupIterations, int iterations, long time, TimeUnit unit) {
+        this.warmupIterations = Math.max(0, warmupIterations);
+        this.iterations = Math.max(1, iterations);
+        this.iterationNanos = unit.toNanos(time);
+    }
+
+    /**
+     * Create the benchmark of a test method, as given by the {@link Microbenchmark @Microbenchmark} annotation of the
+     * method or, failing that, of its test class.
+     * @param testClass the test class
+     * @param method the test method
+     * @return a new benchmark, or null if neither is annotated
+     */
+    public static DatumBenchmark of(Class<?> testClass, Method method) {
+        Microbenchmark microbenchmark = method.getAnnotation(Microbenchmark.class);
+        if (microbenchmark == null) {
+            microbenchmark = testClass.getAnnotation(Microbenchmark.class);
+        }
+        return microbenchmark == null ? null : new DatumBenchmark(
+            microbenchmark.warmupIterations(), microbenchmark.iterations(), microbenchmark.time(), microbenchmark.unit());
+    }
+
+    /**
+     * Create the statement measuring a run, in place of a {@link ParameterizedInvokeMethod}.
+     * @param testMethod the run to measure
+     * @param testSpec the spec of the run
+     * @param report the report to record the results in
+     * @return the statement
+     */
+    public Statement invoker(ParameterizedFrameworkMethod testMethod, TestSpec testSpec, BenchmarkReport report) {
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                try {
+                    for (int i = 0; i < warmupIterations; i++) {
+                        iteration(testSpec, null);
+                    }
+                    LatencyHistogram latencies = new LatencyHistogram();
+                    double[] opsPerSecond = new double[iterations];
+                    long operations = 0;
+                    for (int i = 0; i < iterations; i++) {
+                        long start = System.nanoTime();
+                        long count = iteration(testSpec, latencies);
+                        opsPerSecond[i] = count * 1e9 / Math.max(1, System.nanoTime() - start);
+                        operations += count;
+                    }
+                    report.record(testMethod, warmupIterations, operations, opsPerSecond, latencies);
+                }
+                finally {
+                    testMethod.releaseTestSpec();
+                }
+            }
+        };
+    }
+
+    // runs the spec over and over for the time of an iteration, and at least once, returning the number of operations
+    private long iteration(TestSpec testSpec, LatencyHistogram latencies) throws Throwable {
+        long deadline = System.nanoTime() + iterationNanos;
+        long count = 0;
+        long end;
+        do {
+            long start = System.nanoTime();
+            testSpec.run();
+            end = System.nanoTime();
+            if (latencies != null) {
+                latencies.record(end - start);
+            }
+            count++;
+        }
+        while (end - deadline < 0 && ! Thread.currentThread().isInterrupted());
+        return count;
+    }
+}
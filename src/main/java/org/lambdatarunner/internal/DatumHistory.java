@@ -0,0 +1,190 @@
+package org.lambdatarunner.internal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.junit.runner.Description;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+
+/**
+ * The outcomes and durations of the tests of a test class in previous runs, keyed by {@link StableIds stable id},
+ * used to run the tests most likely to fail first. The history of each class is kept in a small text file, which
+ * records, for each test, the last run in which it failed, if any, and how long it took when it last ran.
+ */
+public class DatumHistory {
+    private static final String HEADER = "# lambdata history v1";
+
+    private static final long NEVER = -1;
+
+    private static final long NO_HISTORY = Long.MAX_VALUE - 1;
+
+    private static class Entry {
+        final long lastFailedRun;
+        final long nanos;
+
+        Entry(long lastFailedRun, long nanos) {
+            this.lastFailedRun = lastFailedRun;
+            this.nanos = nanos;
+        }
+    }
+
+    private final Path file;
+
+    private final int window;
+
+    // the number of runs recorded before this one
+    private final long previousRuns;
+
+    private final Map<String, Entry> previous;
+
+    private final Map<String, Entry> current = new ConcurrentHashMap<>();
+
+    private DatumHistory(Path file, int window, long previousRuns, Map<String, Entry> previous) {
+        this.file = file;
+        this.window = window;
+        this.previousRuns = previousRuns;
+        this.previous = previous;
+    }
+
+    /**
+     * Load the history of a test class if a history has been requested via the {@code lambdata.history} setting,
+     * which names the directory the history of each class is kept in. Tests which failed in any of the last
+     * {@code lambdata.history.window} (default 5) runs count as recently failing.
+     * @param testClass the test class
+     * @return the history, or null if a history has not been requested
+     */
+    public static DatumHistory fromSettings(Class<?> testClass) {
+        Path directory = Settings.getPath("history");
+        return directory == null
+            ? null
+            : load(directory.resolve(testClass.getName() + ".history"), Settings.getInt("history.window", 5));
+    }
+
+    /**
+     * Load a history, which is empty if the file does not exist or cannot be read.
+     * @param file the file the history is kept in
+     * @param window the number of runs within which a failure counts as recent
+     * @return the history
+     */
+    public static DatumHistory load(Path file, int window) {
+        DatumHistory history = StateFiles.readDiscardable(file, path -> {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                if (! HEADER.equals(reader.readLine())) {
+                    return null;
+                }
+                long runs = Long.parseLong(reader.readLine().split("\t")[1]);
+                Map<String, Entry> entries = new ConcurrentHashMap<>();
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    String[] fields = line.split("\t");
+                    entries.put(fields[0], new Entry(Long.parseLong(fields[1]), Long.parseLong(fields[2])));
+                }
+                return new DatumHistory(file, window, runs, entries);
+            }
+        });
+        return history != null ? history : new DatumHistory(file, window, 0, new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Get the priority with which a test should be run: tests which failed recently come first, the fastest of
+     * them first, followed by tests with no history, and then the rest.
+     * @param id the stable id of the test
+     * @return the priority of the test, lower values to be run first
+     */
+    public long priority(String id) {
+        Entry entry = previous.get(id);
+        if (entry == null) {
+            return NO_HISTORY;
+        }
+        else if (entry.lastFailedRun != NEVER && previousRuns - entry.lastFailedRun < window) {
+            return Math.min(entry.nanos, NO_HISTORY - 1);
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Determine whether a priority is that of a test which failed recently.
+     * @param priority the priority, as given by {@link #priority}
+     * @return true if the test failed recently
+     */
+    public static boolean failedRecently(long priority) {
+        return priority < NO_HISTORY;
+    }
+
+    /**
+     * Record the outcome of a test in this run.
+     * @param id the stable id of the test
+     * @param failed whether the test failed
+     * @param nanos the time it took, in nanoseconds
+     */
+    public void record(String id, boolean failed, long nanos) {
+        Entry entry = previous.get(id);
+        long lastFailedRun = failed ? previousRuns : entry == null ? NEVER : entry.lastFailedRun;
+        current.put(id, new Entry(lastFailedRun, nanos));
+    }
+
+    /**
+     * Create a listener which records the outcome of each test it is notified of.
+     * @param ids the stable ids of tests, by description, or null for descriptions of tests which are not recorded
+     * @return a listener
+     */
+    public RunListener listener(Function<Description, String> ids) {
+        Map<String, Long> started = new ConcurrentHashMap<>();
+        Map<String, Boolean> failed = new ConcurrentHashMap<>();
+        return new RunListener() {
+            @Override
+            public void testStarted(Description description) {
+                String id = ids.apply(description);
+                if (id != null) {
+                    started.put(id, System.nanoTime());
+                }
+            }
+
+            @Override
+            public void testFailure(Failure failure) {
+                String id = ids.apply(failure.getDescription());
+                if (id != null) {
+                    failed.put(id, true);
+                }
+            }
+
+            @Override
+            public void testFinished(Description description) {
+                String id = ids.apply(description);
+                Long start = id == null ? null : started.remove(id);
+                if (start != null) {
+                    record(id, failed.remove(id) != null, System.nanoTime() - start);
+                }
+            }
+        };
+    }
+
+    /**
+     * Save the history, including the tests recorded in this run. Tests which did not run this time, for instance
+     * because they were filtered out, keep their previous history.
+     */
+    public void save() {
+        Map<String, Entry> entries = new TreeMap<>(previous);
+        entries.putAll(current);
+        try {
+            StateFiles.replaceText(file, writer -> {
+                writer.write(HEADER + "\n");
+                writer.write("runs\t" + (previousRuns + 1) + "\n");
+                for (Map.Entry<String, Entry> entry: entries.entrySet()) {
+                    writer.write(entry.getKey() + "\t" + entry.getValue().lastFailedRun + "\t"
+                        + entry.getValue().nanos + "\n");
+                }
+            });
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Unable to write test history " + file, e);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.lambdatarunner.internal;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.junit.runners.model.Statement;
+import org.lambdatarunner.LatencyBudget;
+import org.lambdatarunner.TestSpec;
+
+/**
+ * Enforces the {@link LatencyBudget @LatencyBudget} of a test method: each datum with a budget is timed repeatedly,
+ * and fails if its times are significantly greater than those of its {@link LatencyBaseline baseline}.
+ */
+public class DatumLatencyBudget {
+    private final double maxSlowdown;
+
+    private final int warmups;
+
+    private final int samples;
+
+    private final double significance;
+
+    private final int[] data;
+
+    /**
+     * Create a new instance.
+     * @param maxSlowdown the slowdown allowed relative to the baseline, as a percentage
+     * @param warmups the number of runs to warm up with
+     * @param samples the number of timed runs
+     * @param significance the significance level of the test
+     * @param data the sorted positions of the data which have the budget, or none for every datum
+     */
+    public DatumLatencyBudget(int maxSlowdown, int warmups, int samples, double significance, int[] data) {
+        this.maxSlowdown = maxSlowdown;
+        this.warmups = Math.max(0, warmups);
+        this.samples = Math.max(1, samples);
+        this.significance = significance;
+        this.data = data;
+    }
+
+    /**
+     * Create the budget of a test method, as given by the {@link LatencyBudget @LatencyBudget} annotation of the
+     * method or, failing that, of its test class.
+     * @param testClass the test class
+     * @param method the test method
+     * @return a new budget, or null if neither is annotated
+     */
+    public static DatumLatencyBudget of(Class<?> testClass, Method method) {
+        LatencyBudget budget = method.getAnnotation(LatencyBudget.class);
+        if (budget == null) {
+            budget = testClass.getAnnotation(LatencyBudget.class);
+        }
+        if (budget == null) {
+            return null;
+        }
+        int[] data = budget.data().clone();
+        Arrays.sort(data);
+        return new DatumLatencyBudget(budget.maxSlowdown(), budget.warmups(), budget.samples(), budget.significance(), data);
+    }
+
+    /**
+     * Determine whether a datum has this budget.
+     * @param index the zero-based position of the datum among the data of its method, which shifts as rows are inserted
+     * @return whether it has the budget
+     */
+    public boolean appliesTo(int index) {
+        return data.length == 0 || Arrays.binarySearch(data, index) >= 0;
+    }
+
+    /**
+     * Create the statement timing a run and checking it against its baseline, in place of a
+     * {@link ParameterizedInvokeMethod}.
+     * @param testMethod the run to time
+     * @param testSpec the spec of the run
+     * @param baseline the baseline
+     * @param id the {@link LatencyBaseline#id id} of the datum in the baseline
+     * @return the statement
+     */
+    public Statement invoker(ParameterizedFrameworkMethod testMethod, TestSpec testSpec, LatencyBaseline baseline,
+                             String id) {
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                long[] nanos = new long[samples];
+                try {
+                    for (int i = 0; i < warmups; i++) {
+                        testSpec.run();
+                    }
+                    for (int i = 0; i < samples; i++) {
+                        long start = System.nanoTime();
+                        testSpec.run();
+                        nanos[i] = System.nanoTime() - start;
+                    }
+                }
+                finally {
+                    testMethod.releaseTestSpec();
+                }
+                Arrays.sort(nanos);
+                long[] previous = baseline.get(id);
+                if (previous == null) {
+                    baseline.record(id, nanos);
+                }
+                else {
+                    check(nanos, previous);
+                }
+            }
+        };
+    }
+
+    private void check(long[] nanos, long[] previous) {
+        double allowance = 1 + maxSlowdown / 100;
+        double[] measured = Arrays.stream(nanos).asDoubleStream().toArray();
+        double[] allowed = Arrays.stream(previous).mapToDouble(value -> value * allowance).toArray();
+        double p = MannWhitney.pGreater(measured, allowed);
+        if (p < significance) {
+            throw new AssertionError(String.format(Locale.ROOT,
+                "Slower than its baseline by more than %s%% (Mann-Whitney p = %.2g < %s)%n  measured: %s%n  baseline: %s",
+                formatNumber(maxSlowdown), p, formatNumber(significance), distribution(nanos), distribution(previous)));
+        }
+    }
+
+    private static String formatNumber(double value) {
+        return value == Math.rint(value) ? Long.toString((long) value) : Double.toString(value);
+    }
+
+    // summarizes sorted samples
+    private static String distribution(long[] sorted) {
+        return String.format(Locale.ROOT, "n = %d, min = %d ns, p25 = %d ns, median = %d ns, p75 = %d ns, max = %d ns",
+            sorted.length, sorted[0], quantile(sorted, 0.25), quantile(sorted, 0.5), quantile(sorted, 0.75),
+            sorted[sorted.length - 1]);
+    }
+
+    private static long quantile(long[] sorted, double quantile) {
+        return sorted[(int) Math.round(quantile * (sorted.length - 1))];
+    }
+}
@@ -0,0 +1,136 @@
+package org.lambdatarunner.internal;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Collects the time taken to run each datum of a test class, keeping a latency histogram for each method, along with
+ * the slowest runs of the class, and writes them as a JSON report.
+ */
+public class DatumTimings {
+
+    private static class Timing {
+        final ParameterizedFrameworkMethod method;
+        final long nanos;
+
+        Timing(ParameterizedFrameworkMethod method, long nanos) {
+            this.method = method;
+            this.nanos = nanos;
+        }
+    }
+
+    private static final Comparator<Timing> FASTEST_FIRST = Comparator.comparingLong(timing -> timing.nanos);
+
+    private final Map<Method, LatencyHistogram> histograms = new LinkedHashMap<>();
+
+    private final PriorityQueue<Timing> slowest = new PriorityQueue<>(FASTEST_FIRST);
+
+    private final int slowestCount;
+
+    /**
+     * Create a new instance.
+     * @param slowestCount the number of slowest runs to report
+     */
+    public DatumTimings(int slowestCount) {
+        this.slowestCount = slowestCount;
+    }
+
+    /**
+     * Create an instance if timing reports have been requested via the {@code lambdata.timings} setting, which
+     * names the directory to write reports to; the number of slowest runs reported is controlled by the
+     * {@code lambdata.timings.slowest} setting.
+     * @return a new instance, or null if timing reports have not been requested
+     */
+    public static DatumTimings fromSettings() {
+        return Settings.get("timings") == null ? null : new DatumTimings(Settings.getInt("timings.slowest", 10));
+    }
+
+    /**
+     * Record the time taken by a run.
+     * @param method the run
+     * @param nanos the time it took, in nanoseconds
+     */
+    public void record(ParameterizedFrameworkMethod method, long nanos) {
+        histogram(method.getMethod()).record(nanos);
+        synchronized (slowest) {
+            if (slowest.size() < slowestCount) {
+                slowest.add(new Timing(method, nanos));
+            }
+            else if (slowestCount > 0 && slowest.peek().nanos < nanos) {
+                slowest.poll();
+                slowest.add(new Timing(method, nanos));
+            }
+        }
+    }
+
+    private LatencyHistogram histogram(Method method) {
+        synchronized (histograms) {
+            return histograms.computeIfAbsent(method, m -> new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Write the report for a test class to the directory named by the {@code lambdata.timings} setting.
+     * @param testClass the test class
+     */
+    public void writeReport(Class<?> testClass) {
+        Path file = Settings.getPath("timings").resolve(testClass.getName() + ".json");
+        try {
+            Files.createDirectories(file.getParent());
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writeReport(testClass, new JsonWriter(writer));
+            }
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Unable to write timing report " + file, e);
+        }
+    }
+
+    void writeReport(Class<?> testClass, JsonWriter json) throws IOException {
+        json.beginObject().name("class").value(testClass.getName());
+        json.name("methods").beginArray();
+        synchronized (histograms) {
+            for (Map.Entry<Method, LatencyHistogram> entry: histograms.entrySet()) {
+                LatencyHistogram histogram = entry.getValue();
+                json.beginObject()
+                    .name("method").value(entry.getKey().getName())
+                    .name("count").value(histogram.getCount())
+                    .name("totalNanos").value(histogram.getTotal())
+                    .name("meanNanos").value(histogram.getMean())
+                    .name("minNanos").value(histogram.getMin())
+                    .name("p50Nanos").value(histogram.getPercentile(50))
+                    .name("p90Nanos").value(histogram.getPercentile(90))
+                    .name("p99Nanos").value(histogram.getPercentile(99))
+                    .name("maxNanos").value(histogram.getMax())
+                    .endObject();
+            }
+        }
+        json.endArray();
+        json.name("slowest").beginArray();
+        List<Timing> timings;
+        synchronized (slowest) {
+            timings = new ArrayList<>(slowest);
+        }
+        timings.sort(FASTEST_FIRST.reversed());
+        for (Timing timing: timings) {
+            json.beginObject()
+                .name("method").value(timing.method.getMethod().getName())
+                .name("index").value(timing.method.getIndex())
+                .name("name").value(timing.method.getDescription().getMethodName())
+                .name("nanos").value(timing.nanos)
+                .endObject();
+        }
+        json.endArray();
+        json.endObject();
+    }
+}
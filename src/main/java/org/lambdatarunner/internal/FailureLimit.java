@@ -0,0 +1,98 @@
+package org.lambdatarunner.internal;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.internal.AssumptionViolatedException;
+import org.junit.runners.model.Statement;
+import org.lambdatarunner.FailFast;
+
+/**
+ * Counts the failures of the runs of a parameterized test method, so that once a limit is reached, the remaining
+ * runs can be skipped.
+ */
+public class FailureLimit {
+    private final String methodName;
+
+    private final int maxFailures;
+
+    private final AtomicInteger failures = new AtomicInteger();
+
+    /**
+     * Create a new instance.
+     * @param methodName the name of the test method, used in the message reported for skipped runs
+     * @param maxFailures the number of failures after which runs are skipped
+     */
+    public FailureLimit(String methodName, int maxFailures) {
+        this.methodName = methodName;
+        this.maxFailures = maxFailures;
+    }
+
+    /**
+     * Create the failure limit of a test method, as given by the {@link FailFast @FailFast} annotation of the method
+     * or, failing that, of its test class.
+     * @param testClass the test class
+     * @param method the test method
+     * @return a new failure limit, or null if neither is annotated
+     */
+    public static FailureLimit of(Class<?> testClass, Method method) {
+        FailFast failFast = method.getAnnotation(FailFast.class);
+        if (failFast == null) {
+            failFast = testClass.getAnnotation(FailFast.class);
+        }
+        return failFast == null ? null : new FailureLimit(method.getName(), Math.max(1, failFast.maxFailures()));
+    }
+
+    /**
+     * Determine whether the limit has been reached, so that further runs should be skipped.
+     * @return true if the limit has been reached
+     */
+    public boolean isReached() {
+        return failures.get() >= maxFailures;
+    }
+
+    /**
+     * Create a statement which reports a run as skipped because the limit has been reached.
+     * @return a statement which fails with an {@link AssumptionViolatedException}
+     */
+    public Statement skip() {
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                throw skipped();
+            }
+        };
+    }
+
+    /**
+     * Wrap a statement running one or more runs, so that it is skipped if the limit has been reached by the time it
+     * is evaluated, and otherwise counts towards the limit if it fails.
+     * @param next the statement to wrap
+     * @return the wrapping statement
+     */
+    public Statement apply(Statement next) {
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                if (isReached()) {
+                    throw skipped();
+                }
+                try {
+                    next.evaluate();
+                }
+                catch (AssumptionViolatedException e) {
+                    throw e;
+                }
+                catch (Throwable e) {
+                    failures.incrementAndGet();
+                    throw e;
+                }
+            }
+        };
+    }
+
+    private AssumptionViolatedException skipped() {
+        return new AssumptionViolatedException(
+            "Skipped, as " + methodName + " has already failed " + maxFailures + " time(s)");
+    }
+}
@@ -0,0 +1,31 @@
+package org.lambdatarunner.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A reusable buffer for the bytes of a single field, decoded as UTF-8 once the field is complete. Since the bytes of
+ * multi-byte UTF-8 characters are never ASCII, fields can be split on ASCII delimiters before decoding.
+ */
+class FieldBuffer {
+    private byte[] bytes = new byte[64];
+
+    private int length;
+
+    void add(int b) {
+        if (length == bytes.length) {
+            bytes = Arrays.copyOf(bytes, bytes.length * 2);
+        }
+        bytes[length++] = (byte) b;
+    }
+
+    int length() {
+        return length;
+    }
+
+    String take() {
+        String value = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        length = 0;
+        return value;
+    }
+}
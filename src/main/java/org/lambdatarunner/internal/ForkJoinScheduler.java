@@ -0,0 +1,42 @@
+package org.lambdatarunner.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.junit.runners.model.RunnerScheduler;
+
+/**
+ * A {@link RunnerScheduler} which runs children on a dedicated {@link ForkJoinPool}, waiting for all of them to
+ * complete when the run is finished.
+ */
+public class ForkJoinScheduler implements RunnerScheduler {
+    private final ForkJoinPool pool;
+
+    private final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+
+    /**
+     * Create a new instance.
+     * @param threads the parallelism of the pool; if not positive, the number of available processors is used.
+     */
+    public ForkJoinScheduler(int threads) {
+        pool = new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public void schedule(Runnable childStatement) {
+        tasks.add(pool.submit(childStatement));
+    }
+
+    @Override
+    public void finished() {
+        try {
+            tasks.forEach(ForkJoinTask::join);
+        }
+        finally {
+            tasks.clear();
+            pool.shutdown();
+        }
+    }
+}
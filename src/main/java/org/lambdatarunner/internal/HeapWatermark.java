@@ -0,0 +1,81 @@
+package org.lambdatarunner.internal;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Measures the peak heap usage while the tests of a class run, and writes it as a JSON report. Peaks are taken from
+ * the heap memory pools of the JVM, which are reset when the class starts; since the pools are shared, the peak of a
+ * class run alongside others in the same JVM includes their usage too. The peak includes garbage not yet collected,
+ * so the usage after the last collection of each pool is reported as well, as a lower bound on the live data.
+ */
+public class HeapWatermark {
+    private final List<MemoryPoolMXBean> pools = ManagementFactory.getMemoryPoolMXBeans().stream()
+        .filter(pool -> pool.getType() == MemoryType.HEAP && pool.isValid())
+        .collect(Collectors.toList());
+
+    /**
+     * Create an instance if heap reports have been requested via the {@code lambdata.heap} setting, which names the
+     * directory to write reports to.
+     * @return a new instance, or null if heap reports have not been requested
+     */
+    public static HeapWatermark fromSettings() {
+        return Settings.get("heap") == null ? null : new HeapWatermark();
+    }
+
+    /**
+     * Start measuring, by resetting the peak usage of each heap pool.
+     */
+    public void start() {
+        pools.forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    /**
+     * Write the report for a test class to the directory named by the {@code lambdata.heap} setting.
+     * @param testClass the test class
+     */
+    public void writeReport(Class<?> testClass) {
+        Path file = Settings.getPath("heap").resolve(testClass.getName() + ".heap.json");
+        try {
+            Files.createDirectories(file.getParent());
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writeReport(testClass, new JsonWriter(writer));
+            }
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Unable to write heap report " + file, e);
+        }
+    }
+
+    void writeReport(Class<?> testClass, JsonWriter json) throws IOException {
+        long peakUsed = 0;
+        long usedAfterGc = 0;
+        json.beginObject().name("class").value(testClass.getName());
+        json.name("pools").beginArray();
+        for (MemoryPoolMXBean pool: pools) {
+            MemoryUsage peak = pool.getPeakUsage();
+            MemoryUsage afterGc = pool.getCollectionUsage();
+            peakUsed += peak.getUsed();
+            usedAfterGc += afterGc == null ? 0 : afterGc.getUsed();
+            json.beginObject()
+                .name("pool").value(pool.getName())
+                .name("peakUsedBytes").value(peak.getUsed())
+                .name("peakCommittedBytes").value(peak.getCommitted())
+                .name("usedAfterGcBytes").value(afterGc == null ? 0 : afterGc.getUsed())
+                .endObject();
+        }
+        json.endArray();
+        json.name("peakUsedBytes").value(peakUsed);
+        json.name("usedAfterGcBytes").value(usedAfterGc);
+        json.endObject();
+    }
+}
@@ -0,0 +1,265 @@
+package org.lambdatarunner.internal;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the records of a JSON lines file, in which each non-blank line is a JSON object or array, one at a time. The
+ * fields of a record are the named members of an object, in the order given, or, if no names are given, its members
+ * or array elements in order. Strings are unescaped, other scalar values are given as their JSON text, null and
+ * missing members are given as null, and nested objects and arrays are given as their JSON text.
+ */
+public class JsonLinesReader implements Iterator<String[]>, Closeable {
+    private final Path file;
+
+    private final MappedFileReader reader;
+
+    private final List<String> names;
+
+    private final FieldBuffer line = new FieldBuffer();
+
+    private String[] next;
+
+    private long lineNumber;
+
+    // the line being parsed, and the position within it
+    private String text;
+
+    private int position;
+
+    /**
+     * Open a file for reading.
+     * @param file the file to read
+     * @param names the names of the members of each object to read, or an empty list to read all members in order
+     */
+    public JsonLinesReader(Path file, List<String> names) {
+        this.file = file;
+        this.reader = new MappedFileReader(file);
+        this.names = names;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null && readLine()) {
+            if (!text.trim().isEmpty()) {
+                next = parseRecord();
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public String[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String[] record = next;
+        next = null;
+        return record;
+    }
+
+    private boolean readLine() {
+        int c = reader.read();
+        if (c == -1) {
+            return false;
+        }
+        while (c != '\n' && c != -1) {
+            if (c != '\r') {
+                line.add(c);
+            }
+            c = reader.read();
+        }
+        lineNumber++;
+        text = line.take();
+        position = 0;
+        return true;
+    }
+
+    private String[] parseRecord() {
+        skipWhitespace();
+        String[] record;
+        if (peek() == '{') {
+            Map<String, String> members = parseObject();
+            record = names.isEmpty()
+                ? members.values().toArray(new String[members.size()])
+                : names.stream().map(members::get).toArray(String[]::new);
+        }
+        else if (peek() == '[') {
+            List<String> elements = parseArray();
+            record = elements.toArray(new String[elements.size()]);
+        }
+        else {
+            throw malformed("expected an object or array");
+        }
+        skipWhitespace();
+        if (position < text.length()) {
+            throw malformed("unexpected text after value");
+        }
+        return record;
+    }
+
+    private Map<String, String> parseObject() {
+        Map<String, String> members = new LinkedHashMap<>();
+        expect('{');
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return members;
+        }
+        while (true) {
+            skipWhitespace();
+            String name = parseString();
+            skipWhitespace();
+            expect(':');
+            members.put(name, parseValue());
+            skipWhitespace();
+            if (peek() == ',') {
+                position++;
+            }
+            else {
+                expect('}');
+                return members;
+            }
+        }
+    }
+
+    private List<String> parseArray() {
+        List<String> elements = new ArrayList<>();
+        expect('[');
+        skipWhitespace();
+        if (peek() == ']') {
+            position++;
+            return elements;
+        }
+        while (true) {
+            elements.add(parseValue());
+            skipWhitespace();
+            if (peek() == ',') {
+                position++;
+            }
+            else {
+                expect(']');
+                return elements;
+            }
+        }
+    }
+
+    private String parseValue() {
+        skipWhitespace();
+        int c = peek();
+        if (c == '"') {
+            return parseString();
+        }
+        else if (c == '{' || c == '[') {
+            int start = position;
+            skipNested();
+            return text.substring(start, position);
+        }
+        int start = position;
+        while (position < text.length() && ",}] \t\r".indexOf(text.charAt(position)) < 0) {
+            position++;
+        }
+        if (start == position) {
+            throw malformed("expected a value");
+        }
+        String literal = text.substring(start, position);
+        return literal.equals("null") ? null : literal;
+    }
+
+    private void skipNested() {
+        int depth = 0;
+        do {
+            int c = peek();
+            if (c == '"') {
+                parseString();
+                continue;
+            }
+            else if (c == '{' || c == '[') {
+                depth++;
+            }
+            else if (c == '}' || c == ']') {
+                depth--;
+            }
+            else if (c == -1) {
+                throw malformed("unterminated value");
+            }
+            position++;
+        } while (depth > 0);
+    }
+
+    private String parseString() {
+        expect('"');
+        StringBuilder value = new StringBuilder();
+        while (true) {
+            if (position >= text.length()) {
+                throw malformed("unterminated string");
+            }
+            char c = text.charAt(position++);
+            if (c == '"') {
+                return value.toString();
+            }
+            else if (c != '\\') {
+                value.append(c);
+            }
+            else if (position >= text.length()) {
+                throw malformed("unterminated string");
+            }
+            else {
+                char escaped = text.charAt(position++);
+                switch (escaped) {
+                    case 'b': value.append('\b'); break;
+                    case 'f': value.append('\f'); break;
+                    case 'n': value.append('\n'); break;
+                    case 'r': value.append('\r'); break;
+                    case 't': value.append('\t'); break;
+                    case 'u':
+                        if (position + 4 > text.length()) {
+                            throw malformed("truncated unicode escape");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        }
+                        catch (NumberFormatException e) {
+                            throw malformed("invalid unicode escape");
+                        }
+                        position += 4;
+                        break;
+                    default: value.append(escaped);
+                }
+            }
+        }
+    }
+
+    private int peek() {
+        return position < text.length() ? text.charAt(position) : -1;
+    }
+
+    private void expect(char c) {
+        if (peek() != c) {
+            throw malformed("expected '" + c + "'");
+        }
+        position++;
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    private IllegalStateException malformed(String problem) {
+        return new IllegalStateException(
+            "Malformed JSON in " + file + " at line " + lineNumber + ", column " + (position + 1) + ": " + problem);
+    }
+
+    @Override
+    public void close() {
+        reader.close();
+    }
+}
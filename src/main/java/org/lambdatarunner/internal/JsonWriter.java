@@ -0,0 +1,153 @@
+package org.lambdatarunner.internal;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.BitSet;
+
+/**
+ * A minimal streaming writer of JSON, used for reports. It takes care of separators and string escaping, but does not
+ * otherwise validate that the output is well-formed.
+ */
+public class JsonWriter implements Closeable, Flushable {
+    private final Writer out;
+
+    // for each open object or array, whether a value has yet been written to it
+    private final BitSet hasValue = new BitSet();
+
+    private int depth = 0;
+
+    private boolean afterName = false;
+
+    public JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    public JsonWriter beginObject() throws IOException {
+        return open('{');
+    }
+
+    public JsonWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    public JsonWriter beginArray() throws IOException {
+        return open('[');
+    }
+
+    public JsonWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    public JsonWriter name(String name) throws IOException {
+        beforeValue();
+        writeString(name);
+        out.write(':');
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value(String value) throws IOException {
+        beforeValue();
+        if (value == null) {
+            out.write("null");
+        }
+        else {
+            writeString(value);
+        }
+        return this;
+    }
+
+    public JsonWriter value(long value) throws IOException {
+        beforeValue();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    public JsonWriter value(double value) throws IOException {
+        beforeValue();
+        out.write(Double.isNaN(value) || Double.isInfinite(value) ? "null" : Double.toString(value));
+        return this;
+    }
+
+    public JsonWriter value(boolean value) throws IOException {
+        beforeValue();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Write a line break. This is only valid between top-level values, as when writing JSON lines.
+     * @return this writer
+     */
+    public JsonWriter newLine() throws IOException {
+        out.write('\n');
+        hasValue.clear(0);
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private JsonWriter open(char bracket) throws IOException {
+        beforeValue();
+        out.write(bracket);
+        depth++;
+        hasValue.clear(depth);
+        return this;
+    }
+
+    private JsonWriter close(char bracket) throws IOException {
+        out.write(bracket);
+        depth--;
+        return this;
+    }
+
+    private void beforeValue() throws IOException {
+        if (afterName) {
+            afterName = false;
+        }
+        else {
+            if (hasValue.get(depth)) {
+                out.write(',');
+            }
+            hasValue.set(depth);
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String escape = escape(c);
+            if (escape != null) {
+                out.write(value, start, i - start);
+                out.write(escape);
+                start = i + 1;
+            }
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+    }
+
+    private static String escape(char c) {
+        switch (c) {
+            case '"': return "\\\"";
+            case '\\': return "\\\\";
+            case '\n': return "\\n";
+            case '\r': return "\\r";
+            case '\t': return "\\t";
+            default:
+                return (c < 0x20 || c == '\u2028' || c == '\u2029') ? String.format("\\u%04x", (int) c) : null;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.lambdatarunner.internal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.lambdatarunner.Datum;
+
+/**
+ * The latencies of the data of a test class with {@link org.lambdatarunner.LatencyBudget latency budgets}, as timed
+ * when their baseline was taken, keyed by {@link #id datum id}. The baseline of each class is kept in a small text
+ * file, which records the timed samples of each datum, in nanoseconds.
+ */
+public class LatencyBaseline {
+    private static final String HEADER = "# lambdata baseline v1";
+
+    private final Path file;
+
+    private final boolean update;
+
+    private final Map<String, long[]> samples;
+
+    private volatile boolean changed;
+
+    private LatencyBaseline(Path file, boolean update, Map<String, long[]> samples) {
+        this.file = file;
+        this.update = update;
+        this.samples = samples;
+    }
+
+    /**
+     * Get the id a datum is kept by in a baseline. This is a hash of the values of the datum, rather than its
+     * position, so that rows inserted into or removed from a table do not compare the data after them with the
+     * baseline of others; data whose values have no stable text, as they rely on the identity-based
+     * {@code toString()} of {@code Object}, are kept by their {@link StableIds stable id} instead.
+     * @param testClass the test class
+     * @param method the test method
+     * @param index the zero-based position of the datum
+     * @param datum the datum
+     * @return the id of the datum
+     */
+    public static String id(Class<?> testClass, Method method, int index, Datum datum) {
+        StringBuilder text = new StringBuilder();
+        if (! ResultCache.appendValue(text, datum.values())) {
+            return StableIds.of(testClass, method, index);
+        }
+        String hash = StateFiles.sha256(text.toString().getBytes(StandardCharsets.UTF_8));
+        return StableIds.of(testClass, method) + "{" + hash + "}";
+    }
+
+    /**
+     * Load the baseline of a test class if latency budgets have been enabled via the {@code lambdata.baseline}
+     * setting, which names the directory the baseline of each class is kept in. If {@code lambdata.baseline.update}
+     * is true, the samples of every datum timed replace those of the baseline.
+     * @param testClass the test class
+     * @return the baseline, or null if latency budgets have not been enabled
+     */
+    public static LatencyBaseline fromSettings(Class<?> testClass) {
+        Path directory = Settings.getPath("baseline");
+        return directory == null
+            ? null
+            : load(directory.resolve(testClass.getName() + ".baseline"),
+                Boolean.parseBoolean(Settings.get("baseline.update")));
+    }
+
+    /**
+     * Load a baseline, which is empty if the file does not exist.
+     * @param file the file the baseline is kept in
+     * @param update whether the samples of every datum timed replace those of the baseline
+     * @return the baseline
+     * @throws RuntimeException if the file cannot be read
+     */
+    public static LatencyBaseline load(Path file, boolean update) {
+        Map<String, long[]> samples = new ConcurrentHashMap<>();
+        if (Files.exists(file)) {
+            // unlike a history, a baseline cannot be rebuilt without losing what it guards against, so one which
+            // cannot be read fails the class rather than being discarded
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                if (! HEADER.equals(reader.readLine())) {
+                    throw new IOException("Not a latency baseline");
+                }
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    String[] fields = line.split("\t");
+                    samples.put(fields[0], Arrays.stream(fields[1].split(",")).mapToLong(Long::parseLong).toArray());
+                }
+            }
+            catch (IOException | RuntimeException e) {
+                throw new RuntimeException("Unable to read latency baseline " + file, e);
+            }
+        }
+        return new LatencyBaseline(file, update, samples);
+    }
+
+    /**
+     * Get the baseline samples of a datum.
+     * @param id the id of the datum
+     * @return the samples, in nanoseconds, or null if the datum is to be given a new baseline
+     */
+    public long[] get(String id) {
+        return update ? null : samples.get(id);
+    }
+
+    /**
+     * Record the samples of a datum as its baseline.
+     * @param id the id of the datum
+     * @param nanos the samples, in nanoseconds
+     */
+    public void record(String id, long[] nanos) {
+        samples.put(id, nanos.clone());
+        changed = true;
+    }
+
+    /**
+     * Save the baseline, if any datum was given a new baseline in this run. Data which did not run this time keep
+     * their previous baseline.
+     */
+    public void save() {
+        if (! changed) {
+            return;
+        }
+        try {
+            StateFiles.replaceText(file, writer -> {
+                writer.write(HEADER + "\n");
+                for (Map.Entry<String, long[]> entry: new TreeMap<>(samples).entrySet()) {
+                    writer.write(entry.getKey() + "\t" + Arrays.stream(entry.getValue())
+                        .mapToObj(Long::toString)
+                        .collect(Collectors.joining(",")) + "\n");
+                }
+            });
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Unable to write latency baseline " + file, e);
+        }
+        changed = false;
+    }
+}
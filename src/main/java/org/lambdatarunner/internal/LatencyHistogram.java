@@ -0,0 +1,92 @@
+package org.lambdatarunner.internal;
+
+/**
+ * A histogram of non-negative durations, using a fixed number of log-linear buckets, so that recording is cheap and
+ * memory use does not depend on the number of values recorded. Values are bucketed with a relative error of at most
+ * 1 in {@value #SUB_BUCKET_COUNT}.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long count;
+    private long total;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    /**
+     * Record a value.
+     * @param value the value to record; negative values are recorded as zero.
+     */
+    public synchronized void record(long value) {
+        value = Math.max(0, value);
+        counts[bucket(value)]++;
+        count++;
+        total += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    public synchronized long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    public synchronized long getMax() {
+        return max;
+    }
+
+    public synchronized long getMean() {
+        return count == 0 ? 0 : total / count;
+    }
+
+    /**
+     * Get an upper bound for the given percentile of recorded values.
+     * @param percentile the percentile, between 0 and 100
+     * @return the highest value in the bucket containing the given percentile, but no more than the maximum value
+     * recorded; or 0 if no values have been recorded
+     */
+    public synchronized long getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(max, Math.max(min, upperBound(i)));
+            }
+        }
+        return max;
+    }
+
+    static int bucket(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) ((value >>> shift) & (SUB_BUCKET_COUNT - 1));
+    }
+
+    static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKET_COUNT - 1;
+        return (long) (SUB_BUCKET_COUNT + bucket % SUB_BUCKET_COUNT) << shift;
+    }
+
+    static long upperBound(int bucket) {
+        return bucket + 1 < BUCKET_COUNT ? lowerBound(bucket + 1) - 1 : Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,94 @@
+package org.lambdatarunner.internal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the bytes of a file sequentially through memory mapping, so that the file is paged in by the operating system
+ * as it is read, rather than copied into the heap. Files larger than can be mapped at once are mapped a region at a
+ * time.
+ */
+public class MappedFileReader implements Closeable {
+    private static final long REGION_SIZE = 1L << 30;
+
+    private final FileChannel channel;
+
+    private final long size;
+
+    private long regionStart;
+
+    private MappedByteBuffer region;
+
+    /**
+     * Open a file for reading.
+     * @param file the file to read
+     * @throws UncheckedIOException if the file cannot be opened
+     */
+    public MappedFileReader(Path file) {
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            size = channel.size();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Unable to open " + file, e);
+        }
+    }
+
+    /**
+     * Read the next byte.
+     * @return the next byte, as a value between 0 and 255, or -1 at the end of the file
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    public int read() {
+        if (region == null || !region.hasRemaining()) {
+            if (!nextRegion()) {
+                return -1;
+            }
+        }
+        return region.get() & 0xff;
+    }
+
+    /**
+     * Look at the next byte, without consuming it.
+     * @return the next byte, as a value between 0 and 255, or -1 at the end of the file
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    public int peek() {
+        if (region == null || !region.hasRemaining()) {
+            if (!nextRegion()) {
+                return -1;
+            }
+        }
+        return region.get(region.position()) & 0xff;
+    }
+
+    private boolean nextRegion() {
+        long start = region == null ? 0 : regionStart + region.capacity();
+        if (start >= size) {
+            return false;
+        }
+        try {
+            region = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(REGION_SIZE, size - start));
+            regionStart = start;
+            return true;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.lambdatarunner.internal;
+
+import java.util.List;
+
+import org.junit.rules.MethodRule;
+import org.junit.rules.RunRules;
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.Statement;
+
+/**
+ * The befores, afters and rules of a test method, applied to the statement of each run in the same order as by the
+ * method blocks of {@link org.junit.runners.BlockJUnit4ClassRunner}: befores, then afters, then method rules, then
+ * test rules. Befores and afters are added through the hooks of the runner, so that runners overriding them see each
+ * run; the rules are resolved once against the test instance the runs are bound to, so that its rule fields are not
+ * read again for each run.
+ */
+public class MethodPipeline {
+    /**
+     * Wraps the statement of a run, such as {@link org.junit.runners.BlockJUnit4ClassRunner#withBefores}.
+     */
+    @FunctionalInterface
+    public interface Hook {
+        Statement apply(FrameworkMethod method, Object test, Statement statement);
+    }
+
+    private final Object test;
+
+    private final Hook befores;
+
+    private final Hook afters;
+
+    private final List<MethodRule> methodRules;
+
+    private final List<TestRule> testRules;
+
+    /**
+     * Create a new instance.
+     * @param test the test instance
+     * @param befores adds the befores of the test class to a run
+     * @param afters adds the afters of the test class to a run
+     * @param methodRules the method rules of the test instance which are not also test rules
+     * @param testRules the test rules of the test instance
+     */
+    public MethodPipeline(Object test, Hook befores, Hook afters, List<MethodRule> methodRules,
+                          List<TestRule> testRules) {
+        this.test = test;
+        this.befores = befores;
+        this.afters = afters;
+        this.methodRules = methodRules;
+        this.testRules = testRules;
+    }
+
+    /**
+     * Get the test instance the pipeline was resolved against.
+     * @return the test instance
+     */
+    public Object getTest() {
+        return test;
+    }
+
+    /**
+     * Wrap the statement of a run in the befores, afters and rules.
+     * @param statement the statement running the test, including its expected exceptions and timeout
+     * @param method the run, given to method rules
+     * @param description the description of the run, given to test rules
+     * @return the wrapping statement
+     */
+    public Statement apply(Statement statement, FrameworkMethod method, Description description) {
+        statement = befores.apply(method, test, statement);
+        statement = afters.apply(method, test, statement);
+        for (MethodRule rule: methodRules) {
+            statement = rule.apply(statement, method, test);
+        }
+        if (! testRules.isEmpty()) {
+            statement = new RunRules(statement, testRules, description);
+        }
+        return statement;
+    }
+}
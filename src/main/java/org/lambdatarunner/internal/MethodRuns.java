@@ -0,0 +1,67 @@
+package org.lambdatarunner.internal;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+
+/**
+ * The state shared by the runs of a parameterized test method against one test instance: the specs, the test
+ * instance, the template for naming runs, and the annotations given to the description of every run. Holding these
+ * once per method, rather than once per run, keeps each run down to its position, description, and, until it is
+ * described, its datum.
+ */
+public class MethodRuns {
+    private final TestSpecCursor testSpecs;
+
+    private final Object test;
+
+    private final NameTemplate names;
+
+    private final Annotation[] annotations;
+
+    /**
+     * Create a new instance.
+     * @param method the @Test-annotated method which returns test specs
+     * @param testSpecs the specs returned by the method
+     * @param test the test object
+     * @param names the template for the names of the runs of the method
+     */
+    public MethodRuns(Method method, TestSpecCursor testSpecs, Object test, NameTemplate names) {
+        this(testSpecs, test, names, method.getAnnotations());
+    }
+
+    private MethodRuns(TestSpecCursor testSpecs, Object test, NameTemplate names, Annotation[] annotations) {
+        this.testSpecs = testSpecs;
+        this.test = test;
+        this.names = names;
+        this.annotations = annotations;
+    }
+
+    /**
+     * Create a copy of this state for runs against another test instance.
+     * @param test the test instance the test specs are bound to
+     * @param testSpecs the specs returned by the method when called on {@code test}
+     * @return a copy of this state, bound to {@code test}
+     */
+    public MethodRuns bindTo(Object test, TestSpecCursor testSpecs) {
+        return new MethodRuns(testSpecs, test, names, annotations);
+    }
+
+    TestSpecCursor getTestSpecs() {
+        return testSpecs;
+    }
+
+    Object getTest() {
+        return test;
+    }
+
+    NameTemplate getNames() {
+        return names;
+    }
+
+    /**
+     * Get the annotations of the method, shared by the descriptions of all its runs. The array must not be changed.
+     */
+    Annotation[] getAnnotations() {
+        return annotations;
+    }
+}
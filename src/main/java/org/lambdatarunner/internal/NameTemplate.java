@@ -0,0 +1,225 @@
+package org.lambdatarunner.internal;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.text.Format;
+import java.text.MessageFormat;
+import java.text.NumberFormat;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.lambdatarunner.Datum;
+import org.lambdatarunner.DescribeAs;
+
+/**
+ * Renders the names of the runs of a parameterized test method. The {@link DescribeAs @DescribeAs} pattern of the
+ * method, if any, is parsed once, and each datum value referenced by it is rendered to at most
+ * {@link DescribeAs#maxValueLength()} characters; values not referenced by the pattern are never rendered. The
+ * placeholder {@code {index}} stands for the zero-based position of the datum.
+ */
+public class NameTemplate {
+    private static final String INDEX_PLACEHOLDER = "{index}";
+
+    private static final Pattern ARGUMENT = Pattern.compile("\\{\\s*(\\d+)");
+
+    private static final String ELLIPSIS = "...";
+
+    private final String methodName;
+
+    private final String pattern;
+
+    private final MessageFormat format;
+
+    // the datum values are arguments 0 to indexArgument - 1 of the format, and the datum index is the last
+    private final int indexArgument;
+
+    private final Format[] formats;
+
+    private final int maxValueLength;
+
+    private NameTemplate(String methodName, DescribeAs describeAs) {
+        this.methodName = methodName;
+        if (describeAs == null) {
+            pattern = null;
+            format = null;
+            indexArgument = 0;
+            formats = null;
+            maxValueLength = 0;
+        }
+        else {
+            pattern = describeAs.value();
+            indexArgument = maxArgument(pattern) + 1;
+            format = new MessageFormat(replaceIndexPlaceholders(pattern, "{" + indexArgument + "}"));
+            formats = format.getFormatsByArgumentIndex();
+            maxValueLength = Math.max(ELLIPSIS.length(), describeAs.maxValueLength());
+        }
+    }
+
+    /**
+     * Create the template for a test method.
+     * @param method the test method
+     * @return the template for naming the runs of the method
+     * @throws IllegalArgumentException if the {@code @DescribeAs} pattern of the method is malformed
+     */
+    public static NameTemplate of(Method method) {
+        return new NameTemplate(method.getName(), method.getAnnotation(DescribeAs.class));
+    }
+
+    /**
+     * Determine whether names depend on the datum, rather than only its position.
+     * @return true if {@link #render} uses the datum
+     */
+    public boolean usesDatum() {
+        return format != null;
+    }
+
+    /**
+     * Render the name of a run.
+     * @param datum the datum of the run; may be null if {@link #usesDatum()} is false
+     * @param index the zero-based position of the datum
+     * @return the name of the run
+     */
+    public String render(Datum datum, int index) {
+        if (format == null) {
+            return methodName + ": " + (index + 1);
+        }
+        Object[] values = datum.values();
+        if (values.length < indexArgument) {
+            return methodName + ": " + renderShort(values, index);
+        }
+        Object[] arguments = new Object[indexArgument + 1];
+        for (int i = 0; i < indexArgument; i++) {
+            arguments[i] = argument(i, values[i]);
+        }
+        arguments[indexArgument] = index;
+        String name;
+        synchronized (format) {
+            name = format.format(arguments);
+        }
+        return methodName + ": " + name;
+    }
+
+    // renders a datum with fewer values than the pattern refers to, whose missing arguments MessageFormat leaves as
+    // placeholders, as long as they are not passed at all; the index therefore cannot be passed after them, and is
+    // written into the pattern instead
+    private String renderShort(Object[] values, int index) {
+        Object[] arguments = new Object[values.length];
+        for (int i = 0; i < values.length; i++) {
+            arguments[i] = argument(i, values[i]);
+        }
+        String indexText = NumberFormat.getInstance(format.getLocale()).format(index);
+        return new MessageFormat(replaceIndexPlaceholders(pattern, "'" + indexText.replace("'", "''") + "'"))
+            .format(arguments);
+    }
+
+    private Object argument(int argumentIndex, Object value) {
+        // values with a format of their own, and numbers and dates, which MessageFormat formats by locale, are passed
+        // as they are; anything else would have its toString() used, so is rendered within bounds instead
+        if ((argumentIndex < formats.length && formats[argumentIndex] != null)
+            || value instanceof Number || value instanceof Date) {
+            return value;
+        }
+        return renderValue(value, maxValueLength);
+    }
+
+    /**
+     * Render a value as text, truncating it to the given length. Arrays and collections are rendered element by
+     * element, stopping once the limit is reached, so that the cost does not depend on their size.
+     */
+    static String renderValue(Object value, int maxLength) {
+        StringBuilder text = new StringBuilder();
+        append(text, value, maxLength + 1);
+        if (text.length() > maxLength) {
+            text.setLength(maxLength - ELLIPSIS.length());
+            text.append(ELLIPSIS);
+        }
+        return text.toString();
+    }
+
+    // appends the value, stopping once the text reaches the limit
+    private static void append(StringBuilder text, Object value, int limit) {
+        if (value == null || ! (value.getClass().isArray() || value instanceof Collection || value instanceof Map)) {
+            CharSequence chars = value instanceof CharSequence ? (CharSequence) value : String.valueOf(value);
+            text.append(chars, 0, Math.min(chars.length(), Math.max(0, limit - text.length())));
+        }
+        else if (value instanceof Map) {
+            appendAll(text, ((Map<?, ?>) value).entrySet().iterator(), "{", "}", limit);
+        }
+        else if (value instanceof Collection) {
+            appendAll(text, ((Collection<?>) value).iterator(), "[", "]", limit);
+        }
+        else {
+            int length = Array.getLength(value);
+            text.append('[');
+            for (int i = 0; i < length && text.length() < limit; i++) {
+                if (i > 0) {
+                    text.append(", ");
+                }
+                append(text, Array.get(value, i), limit);
+            }
+            text.append(']');
+        }
+    }
+
+    private static void appendAll(StringBuilder text, Iterator<?> values, String open, String close, int limit) {
+        text.append(open);
+        for (boolean first = true; values.hasNext() && text.length() < limit; first = false) {
+            if (! first) {
+                text.append(", ");
+            }
+            Object value = values.next();
+            if (value instanceof Map.Entry) {
+                append(text, ((Map.Entry<?, ?>) value).getKey(), limit);
+                text.append('=');
+                append(text, ((Map.Entry<?, ?>) value).getValue(), limit);
+            }
+            else {
+                append(text, value, limit);
+            }
+        }
+        text.append(close);
+    }
+
+    // finds the highest argument referenced outside of quoted text
+    private static int maxArgument(String pattern) {
+        StringBuilder unquoted = new StringBuilder(pattern.length());
+        boolean quoted = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                quoted = ! quoted;
+            }
+            unquoted.append(quoted || c == '\'' ? ' ' : c);
+        }
+        int max = -1;
+        Matcher matcher = ARGUMENT.matcher(unquoted);
+        while (matcher.find()) {
+            max = Math.max(max, Integer.parseInt(matcher.group(1)));
+        }
+        return max;
+    }
+
+    // replaces index placeholders outside of quoted text with the given replacement
+    private static String replaceIndexPlaceholders(String pattern, String replacement) {
+        StringBuilder replaced = new StringBuilder(pattern.length());
+        boolean quoted = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                quoted = ! quoted;
+            }
+            if (! quoted && pattern.startsWith(INDEX_PLACEHOLDER, i)) {
+                replaced.append(replacement);
+                i += INDEX_PLACEHOLDER.length() - 1;
+            }
+            else {
+                replaced.append(c);
+            }
+        }
+        return replaced.toString();
+    }
+}
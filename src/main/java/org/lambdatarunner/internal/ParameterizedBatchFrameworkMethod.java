@@ -0,0 +1,127 @@
+package org.lambdatarunner.internal;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.junit.runner.Description;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.manipulation.Filterable;
+import org.junit.runner.manipulation.NoTestsRemainException;
+import org.junit.runners.model.FrameworkMethod;
+
+/**
+ * A batch of runs of a parameterized test method, to be run within a single pass of befores, afters and rules.
+ */
+public class ParameterizedBatchFrameworkMethod extends FrameworkMethod implements Filterable {
+
+    private volatile List<ParameterizedFrameworkMethod> methods;
+
+    private volatile Description description;
+
+    private final Object test;
+
+    /**
+     * Create a new instance.
+     * @param method the @Test-annotated method which returns test specs
+     * @param methods the runs of the method which make up the batch
+     * @param test the test object
+     */
+    public ParameterizedBatchFrameworkMethod(Method method, List<ParameterizedFrameworkMethod> methods, Object test) {
+        super(method);
+        this.methods = methods;
+        this.test = test;
+    }
+
+    /**
+     * Get the runs making up this batch
+     * @return the runs making up this batch
+     */
+    public List<ParameterizedFrameworkMethod> getMethods() {
+        return methods;
+    }
+
+    /**
+     * Get the test instance used to run the batch
+     * @return the test instance used to run the batch
+     */
+    public Object getTest() {
+        return test;
+    }
+
+    /**
+     * Create a copy of this batch whose runs are bound to the given test instance.
+     * @param test the test instance the test specs are bound to
+     * @param testSpecs the specs returned by the method when called on {@code test}
+     * @return a copy of this batch, bound to {@code test}
+     * @see ParameterizedFrameworkMethod#bindTo(Object, TestSpecCursor)
+     */
+    public ParameterizedBatchFrameworkMethod bindTo(Object test, TestSpecCursor testSpecs) {
+        // the runs of a batch all share the same state, so they can share the bound copy of it
+        MethodRuns runs = methods.get(0).getRuns().bindTo(test, testSpecs);
+        return new ParameterizedBatchFrameworkMethod(
+            getMethod(),
+            methods.stream().map(method -> method.bindTo(runs)).collect(Collectors.toList()),
+            test);
+    }
+
+    @Override
+    public void filter(Filter filter) throws NoTestsRemainException {
+        retain(method -> filter.shouldRun(method.getDescription()));
+    }
+
+    /**
+     * Remove the runs of this batch which do not match a predicate, without describing them.
+     * @param predicate the predicate matching the runs to keep
+     * @throws NoTestsRemainException if no runs match
+     */
+    public synchronized void retain(Predicate<ParameterizedFrameworkMethod> predicate) throws NoTestsRemainException {
+        List<ParameterizedFrameworkMethod> retained = methods.stream().filter(predicate).collect(Collectors.toList());
+        if (retained.isEmpty()) {
+            throw new NoTestsRemainException();
+        }
+        methods = retained;
+        description = null;
+    }
+
+    @Override
+    public void validatePublicVoid(boolean isStatic, List<Throwable> errors) {
+        if (Modifier.isStatic(getMethod().getModifiers()) != isStatic) {
+            String state= isStatic ? "should" : "should not";
+            errors.add(new Exception("Method " + getMethod().getName() + "() " + state + " be static"));
+        }
+        if (!Modifier.isPublic(getMethod().getDeclaringClass().getModifiers()))
+            errors.add(new Exception("Class " + getMethod().getDeclaringClass().getName() + " should be public"));
+        if (!Modifier.isPublic(getMethod().getModifiers()))
+            errors.add(new Exception("Method " + getMethod().getName() + "() should be public"));
+    }
+
+    @Override
+    public String getName() {
+        return getDescription().getDisplayName();
+    }
+
+    /**
+     * Get the description of this batch, describing its runs on first use.
+     * @return the description of this batch
+     */
+    public Description getDescription() {
+        Description description = this.description;
+        if (description == null) {
+            synchronized (this) {
+                description = this.description;
+                if (description == null) {
+                    description = Description.createSuiteDescription(getMethod().getName() + " ["
+                        + (methods.get(0).getIndex() + 1) + ".." + (methods.get(methods.size() - 1).getIndex() + 1) + "]");
+                    for (ParameterizedFrameworkMethod method: methods) {
+                        description.addChild(method.getDescription());
+                    }
+                    this.description = description;
+                }
+            }
+        }
+        return description;
+    }
+}
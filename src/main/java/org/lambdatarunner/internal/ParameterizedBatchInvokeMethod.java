@@ -0,0 +1,128 @@
+package org.lambdatarunner.internal;
+
+import java.util.List;
+import java.util.function.BiFunction;
+
+import org.junit.internal.AssumptionViolatedException;
+import org.junit.internal.runners.model.EachTestNotifier;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.model.Statement;
+import org.lambdatarunner.TestSpec;
+
+/**
+ * Runs each of the runs in a batch in turn, notifying listeners of each one individually. The last run of the batch is
+ * not reported as finished until {@link #run(Statement)} completes, so that failures in afters can be reported
+ * against it.
+ */
+public class ParameterizedBatchInvokeMethod extends Statement {
+
+    private final List<ParameterizedFrameworkMethod> methods;
+
+    private final RunNotifier notifier;
+
+    private final BiFunction<ParameterizedFrameworkMethod, TestSpec, Statement> datumStatements;
+
+    private final AsyncWindow window;
+
+    private int started = 0;
+
+    private EachTestNotifier current;
+
+    /**
+     * Create a new instance.
+     * @param batch the batch to run
+     * @param notifier the notifier to report individual runs to
+     * @param datumStatements creates the statement used to run each individual run of the batch, given its spec
+     */
+    public ParameterizedBatchInvokeMethod(
+        ParameterizedBatchFrameworkMethod batch,
+        RunNotifier notifier,
+        BiFunction<ParameterizedFrameworkMethod, TestSpec, Statement> datumStatements) {
+        this(batch, notifier, datumStatements, null);
+    }
+
+    /**
+     * Create a new instance, which looks up the specs of the batch through a window of data in flight.
+     * @param batch the batch to run
+     * @param notifier the notifier to report individual runs to
+     * @param datumStatements creates the statement used to run each individual run of the batch, given its spec
+     * @param window the window the specs of the batch are looked up through, or null to look them up directly
+     */
+    public ParameterizedBatchInvokeMethod(
+        ParameterizedBatchFrameworkMethod batch,
+        RunNotifier notifier,
+        BiFunction<ParameterizedFrameworkMethod, TestSpec, Statement> datumStatements,
+        AsyncWindow window) {
+        this.methods = batch.getMethods();
+        this.notifier = notifier;
+        this.datumStatements = datumStatements;
+        this.window = window;
+    }
+
+    @Override
+    public void evaluate() throws Throwable {
+        while (started < methods.size()) {
+            ParameterizedFrameworkMethod method = methods.get(started);
+            start(method);
+            try {
+                TestSpec spec = window == null ? method.getTestSpec() : window.get(started - 1);
+                datumStatements.apply(method, spec).evaluate();
+            }
+            catch (AssumptionViolatedException e) {
+                current.addFailedAssumption(e);
+            }
+            catch (Throwable e) {
+                current.addFailure(e);
+            }
+        }
+    }
+
+    /**
+     * Evaluate the statement wrapping this batch (typically, this statement surrounded by befores, afters and rules),
+     * reporting any failure of it against each run which was not yet finished.
+     * @param batchStatement the statement wrapping this batch
+     */
+    public void run(Statement batchStatement) {
+        try {
+            batchStatement.evaluate();
+        }
+        catch (Throwable e) {
+            if (current != null) {
+                addFailure(e);
+            }
+            while (started < methods.size()) {
+                start(methods.get(started));
+                addFailure(e);
+            }
+        }
+        finally {
+            if (window != null) {
+                window.close();
+            }
+            finishCurrent();
+        }
+    }
+
+    private void start(ParameterizedFrameworkMethod method) {
+        finishCurrent();
+        current = new EachTestNotifier(notifier, method.getDescription());
+        started++;
+        current.fireTestStarted();
+    }
+
+    private void addFailure(Throwable e) {
+        if (e instanceof AssumptionViolatedException) {
+            current.addFailedAssumption((AssumptionViolatedException) e);
+        }
+        else {
+            current.addFailure(e);
+        }
+    }
+
+    private void finishCurrent() {
+        if (current != null) {
+            current.fireTestFinished();
+            current = null;
+        }
+    }
+}
@@ -2,50 +2,97 @@ package org.lambdatarunner.internal;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
-import java.text.MessageFormat;
 import java.util.List;
 
 import org.junit.runner.Description;
 import org.junit.runners.model.FrameworkMethod;
 import org.lambdatarunner.Datum;
-import org.lambdatarunner.DescribeAs;
 import org.lambdatarunner.TestSpec;
 
 public class ParameterizedFrameworkMethod extends FrameworkMethod {
 
-    private final TestSpec testSpec;
+    private final MethodRuns runs;
 
-    private final Description description;
+    // the datum to describe, held until the description is created; descriptions of data which are not held in memory
+    // are created up front instead
+    private Datum datum;
 
-    private final Object test;
+    private volatile Description description;
+
+    private final int count;
 
     /**
-     * Create a new instance.
+     * Create a new instance, sharing the state common to the runs of the method.
      * @param method the @Test-annotated method which returns
-     * @param testSpec the test to run, with data bound
-     * @param test the test object
+     * @param runs the state shared by the runs of the method; the spec at position {@code count - 1} will be run
+     * @param datum the datum of the spec to run, used to describe the test
      * @param count A unique number for this run of the test to help distinguish it from other runs.
      */
-    public ParameterizedFrameworkMethod(Method method, TestSpec testSpec, Object test, int count) {
+    public ParameterizedFrameworkMethod(Method method, MethodRuns runs, Datum datum, int count) {
         super(method);
-        this.testSpec = testSpec;
-        this.test = test;
-        description = Description.createTestDescription(
-            test.getClass(), parameterizedTestName(method, testSpec.getDatum(), count), method.getAnnotations());
+        this.runs = runs;
+        this.count = count;
+        if (runs.getNames().usesDatum()) {
+            this.datum = datum;
+            if (! runs.getTestSpecs().isInMemory()) {
+                getDescription();
+            }
+        }
+    }
+
+    private ParameterizedFrameworkMethod(ParameterizedFrameworkMethod original, MethodRuns runs) {
+        super(original.getMethod());
+        this.runs = runs;
+        this.count = original.count;
+        this.description = original.getDescription();
+    }
+
+    /**
+     * Get the spec run by this method, from the specs returned by the test method
+     * @return the spec at position {@link #getIndex()}
+     */
+    public TestSpec getTestSpec() {
+        return runs.getTestSpecs().get(getIndex());
+    }
+
+    MethodRuns getRuns() {
+        return runs;
+    }
+
+    /**
+     * Release the spec run by this method, once it has been run, so that its datum need not be held for the rest of
+     * the run of the test class.
+     */
+    public void releaseTestSpec() {
+        runs.getTestSpecs().release(getIndex());
     }
 
-    private String parameterizedTestName(Method method, Datum datum, int count) {
-        DescribeAs describeAs = method.getAnnotation(DescribeAs.class);
-        return (describeAs == null)
-            ? method.getName() + ": " + count
-            : method.getName() + ": " + MessageFormat.format(
-                describeAs.value(),
-                datum.values());
+    /**
+     * Get the position of this run among the specs returned by the test method
+     * @return the zero-based index of the test spec run by this method
+     */
+    public int getIndex() {
+        return count - 1;
+    }
 
+    /**
+     * Create a copy of this method, with the same description, which runs the spec at the same position among the
+     * given test specs against the given test instance.
+     * @param test the test instance the test specs are bound to
+     * @param testSpecs the specs returned by the method when called on {@code test}
+     * @return a copy of this method, bound to {@code test}
+     */
+    public ParameterizedFrameworkMethod bindTo(Object test, TestSpecCursor testSpecs) {
+        return new ParameterizedFrameworkMethod(this, runs.bindTo(test, testSpecs));
     }
 
-    TestSpec getTestSpec() {
-        return testSpec;
+    /**
+     * Create a copy of this method, with the same description, which runs with the given shared state.
+     * @param runs the state shared by the runs of the method, bound to another test instance
+     * @return a copy of this method, bound to the test instance of {@code runs}
+     */
+    public ParameterizedFrameworkMethod bindTo(MethodRuns runs) {
+        return new ParameterizedFrameworkMethod(this, runs);
     }
 
     /**
@@ -53,7 +100,7 @@ public class ParameterizedFrameworkMethod extends FrameworkMethod {
      * @return the test instance used to run the test method
      */
     public Object getTest() {
-        return test;
+        return runs.getTest();
     }
 
     @Override
@@ -70,10 +117,26 @@ public class ParameterizedFrameworkMethod extends FrameworkMethod {
 
     @Override
     public String getName() {
-        return description.getDisplayName();
+        return getDescription().getDisplayName();
     }
 
+    /**
+     * Get the description of this run, rendering its name on first use.
+     * @return the description of this run
+     */
     public Description getDescription() {
+        Description description = this.description;
+        if (description == null) {
+            synchronized (this) {
+                description = this.description;
+                if (description == null) {
+                    description = Description.createTestDescription(
+                        runs.getTest().getClass(), runs.getNames().render(datum, getIndex()), runs.getAnnotations());
+                    this.description = description;
+                    datum = null;
+                }
+            }
+        }
         return description;
     }
 }
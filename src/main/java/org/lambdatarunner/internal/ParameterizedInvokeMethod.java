@@ -5,15 +5,69 @@ import org.lambdatarunner.TestSpec;
 
 public class ParameterizedInvokeMethod extends Statement {
 
+    private final ParameterizedFrameworkMethod testMethod;
+
     private final TestSpec testSpec;
 
+    private final DatumTimings timings;
+
+    private final DatumAllocations allocations;
+
     public ParameterizedInvokeMethod(ParameterizedFrameworkMethod testMethod) {
-        this.testSpec = testMethod.getTestSpec();
+        this(testMethod, testMethod.getTestSpec(), null, null);
+    }
+
+    /**
+     * Create a new instance, running a spec which has already been looked up.
+     * @param testMethod the run to invoke
+     * @param testSpec the spec of the run
+     * @param timings if not null, the time taken to run the test spec will be recorded here
+     * @param allocations if not null, the memory allocated by the test spec will be measured, and checked against the
+     * budget of its method, here
+     */
+    public ParameterizedInvokeMethod(
+        ParameterizedFrameworkMethod testMethod, TestSpec testSpec, DatumTimings timings, DatumAllocations allocations) {
+        this.testMethod = testMethod;
+        this.testSpec = testSpec;
+        this.timings = timings;
+        this.allocations = allocations;
     }
 
     @Override
     public void evaluate() throws Throwable {
-        testSpec.run();
+        try {
+            if (timings == null) {
+                run();
+            }
+            else {
+                long start = System.nanoTime();
+                try {
+                    run();
+                }
+                finally {
+                    timings.record(testMethod, System.nanoTime() - start);
+                }
+            }
+        }
+        finally {
+            testMethod.releaseTestSpec();
+        }
+    }
+
+    private void run() throws Throwable {
+        if (allocations == null) {
+            testSpec.run();
+            return;
+        }
+        DatumAllocations.Measurement measurement = allocations.start(testMethod);
+        long bytes;
+        try {
+            testSpec.run();
+        }
+        finally {
+            bytes = allocations.finish(measurement);
+        }
+        allocations.checkBudget(testMethod, bytes);
     }
 
 }
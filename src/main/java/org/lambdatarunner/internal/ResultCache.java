@@ -0,0 +1,290 @@
+package org.lambdatarunner.internal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.junit.internal.AssumptionViolatedException;
+import org.junit.runner.Description;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+import org.junit.runners.model.Statement;
+import org.lambdatarunner.Datum;
+import org.lambdatarunner.Incremental;
+
+/**
+ * The data of the {@link Incremental @Incremental} test methods of a test class which passed in previous runs, each
+ * with the key it had when it last passed: a hash of its values and of the bytecode it was run against. A datum whose
+ * key is unchanged need not be run again. The cache of each class is kept in a small text file, which records the
+ * stable id and key of each datum.
+ */
+public class ResultCache {
+    private static final String HEADER = "# lambdata incremental v1";
+
+    private final Path file;
+
+    private final Class<?> testClass;
+
+    private final Map<String, String> previous;
+
+    private final Map<String, String> current = new ConcurrentHashMap<>();
+
+    private final Set<String> invalidated = ConcurrentHashMap.newKeySet();
+
+    // the keys of the data which have been run, until they are known to have passed
+    private final Map<String, String> pending = new ConcurrentHashMap<>();
+
+    // the hash of the code each method is run against, or the empty string if some of it could not be read
+    private final Map<Method, String> fingerprints = new ConcurrentHashMap<>();
+
+    private ResultCache(Path file, Class<?> testClass, Map<String, String> previous) {
+        this.file = file;
+        this.testClass = testClass;
+        this.previous = previous;
+    }
+
+    /**
+     * Load the cache of a test class if incremental runs have been requested via the {@code lambdata.incremental}
+     * setting, which names the directory the cache of each class is kept in.
+     * @param testClass the test class
+     * @return the cache, or null if incremental runs have not been requested, or none of the methods of the class are
+     * {@link Incremental @Incremental}
+     */
+    public static ResultCache fromSettings(Class<?> testClass) {
+        Path directory = Settings.getPath("incremental");
+        if (directory == null
+            || (! testClass.isAnnotationPresent(Incremental.class)
+                && Arrays.stream(testClass.getMethods()).noneMatch(method -> method.isAnnotationPresent(Incremental.class)))) {
+            return null;
+        }
+        return load(directory.resolve(testClass.getName() + ".incremental"), testClass);
+    }
+
+    /**
+     * Load a cache, which is empty if the file does not exist or cannot be read.
+     * @param file the file the cache is kept in
+     * @param testClass the test class
+     * @return the cache
+     */
+    public static ResultCache load(Path file, Class<?> testClass) {
+        Map<String, String> entries = StateFiles.readDiscardable(file, path -> {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                if (! HEADER.equals(reader.readLine())) {
+                    return null;
+                }
+                Map<String, String> read = new ConcurrentHashMap<>();
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    String[] fields = line.split("\t");
+                    read.put(fields[0], fields[1]);
+                }
+                return read;
+            }
+        });
+        return new ResultCache(file, testClass, entries == null ? new ConcurrentHashMap<>() : entries);
+    }
+
+    /**
+     * Determine whether a datum passed when it was last run, with the same values, against the same code. If not,
+     * the datum is expected to be run, and its key is recorded if it passes.
+     * @param method the test method
+     * @param index the position of the datum
+     * @param datum the datum
+     * @return true if the datum need not be run
+     */
+    public boolean isUnchanged(Method method, int index, Datum datum) {
+        Incremental incremental = incremental(method);
+        if (incremental == null) {
+            return false;
+        }
+        String id = StableIds.of(testClass, method, index);
+        String key = key(method, incremental, datum);
+        if (key == null) {
+            return false;
+        }
+        if (key.equals(previous.get(id))) {
+            return true;
+        }
+        pending.put(id, key);
+        return false;
+    }
+
+    /**
+     * Create a statement which reports a datum as skipped because it is unchanged.
+     * @return a statement which fails with an {@link AssumptionViolatedException}
+     */
+    public Statement skip() {
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                throw new AssumptionViolatedException("Skipped, as unchanged since it last passed");
+            }
+        };
+    }
+
+    private Incremental incremental(Method method) {
+        Incremental incremental = method.getAnnotation(Incremental.class);
+        return incremental != null ? incremental : testClass.getAnnotation(Incremental.class);
+    }
+
+    private String key(Method method, Incremental incremental, Datum datum) {
+        String fingerprint = fingerprints.computeIfAbsent(method, m -> fingerprint(incremental));
+        StringBuilder text = new StringBuilder(fingerprint).append('\n').append(method.getName());
+        if (fingerprint.isEmpty() || ! appendValue(text.append('\n'), datum.values())) {
+            return null;
+        }
+        return StateFiles.sha256(text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String fingerprint(Incremental incremental) {
+        Set<Class<?>> classes = new LinkedHashSet<>();
+        for (Class<?> c = testClass; c != null && c != Object.class; c = c.getSuperclass()) {
+            classes.add(c);
+        }
+        classes.addAll(Arrays.asList(incremental.value()));
+        MessageDigest digest = StateFiles.sha256();
+        for (Class<?> c: classes) {
+            String name = c.getName();
+            try (InputStream bytecode = c.getResourceAsStream(name.substring(name.lastIndexOf('.') + 1) + ".class")) {
+                if (bytecode == null) {
+                    return "";
+                }
+                digest.update(name.getBytes(StandardCharsets.UTF_8));
+                byte[] buffer = new byte[8192];
+                for (int read = bytecode.read(buffer); read >= 0; read = bytecode.read(buffer)) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+            catch (IOException e) {
+                return "";
+            }
+        }
+        return StateFiles.hex(digest.digest());
+    }
+
+    /**
+     * Append text identifying a value, returning false if the value has no stable text, as it relies on the
+     * identity-based {@code toString()} of {@code Object}.
+     */
+    static boolean appendValue(StringBuilder text, Object value) {
+        if (value == null) {
+            text.append("null");
+            return true;
+        }
+        text.append(value.getClass().getName());
+        if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            text.append('[').append(length).append(']');
+            for (int i = 0; i < length; i++) {
+                if (! appendValue(text.append(' '), Array.get(value, i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        else if (value instanceof Collection || value instanceof Map) {
+            Collection<?> elements = value instanceof Map ? ((Map<?, ?>) value).entrySet() : (Collection<?>) value;
+            text.append('[').append(elements.size()).append(']');
+            for (Object element: elements) {
+                if (element instanceof Map.Entry) {
+                    if (! appendValue(text.append(' '), ((Map.Entry<?, ?>) element).getKey())
+                        || ! appendValue(text.append('='), ((Map.Entry<?, ?>) element).getValue())) {
+                        return false;
+                    }
+                }
+                else if (! appendValue(text.append(' '), element)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        try {
+            if (value.getClass().getMethod("toString").getDeclaringClass() == Object.class) {
+                return false;
+            }
+        }
+        catch (NoSuchMethodException e) {
+            return false;
+        }
+        String string = value.toString();
+        text.append(':').append(string.length()).append(':').append(string);
+        return true;
+    }
+
+    /**
+     * Create a listener which records the data which passed, by the outcome of each test it is notified of.
+     * @param ids the stable ids of tests, by description, or null for descriptions of tests which are not recorded
+     * @return a listener
+     */
+    public RunListener listener(Function<Description, String> ids) {
+        Set<String> failed = ConcurrentHashMap.newKeySet();
+        return new RunListener() {
+            @Override
+            public void testFailure(Failure failure) {
+                failed(failure.getDescription());
+            }
+
+            @Override
+            public void testAssumptionFailure(Failure failure) {
+                failed(failure.getDescription());
+            }
+
+            private void failed(Description description) {
+                String id = ids.apply(description);
+                if (id != null) {
+                    failed.add(id);
+                }
+            }
+
+            @Override
+            public void testFinished(Description description) {
+                String id = ids.apply(description);
+                String key = id == null ? null : pending.remove(id);
+                if (key != null) {
+                    if (failed.remove(id)) {
+                        invalidated.add(id);
+                        current.remove(id);
+                    }
+                    else {
+                        current.put(id, key);
+                        invalidated.remove(id);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Save the cache, including the data which passed in this run, and excluding those which failed. Data which did
+     * not run this time keep their previous entry.
+     */
+    public void save() {
+        Map<String, String> entries = new TreeMap<>(previous);
+        entries.keySet().removeAll(invalidated);
+        entries.putAll(current);
+        try {
+            StateFiles.replaceText(file, writer -> {
+                writer.write(HEADER + "\n");
+                for (Map.Entry<String, String> entry: entries.entrySet()) {
+                    writer.write(entry.getKey() + "\t" + entry.getValue() + "\n");
+                }
+            });
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Unable to write test results " + file, e);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package org.lambdatarunner.internal;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.runner.Description;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+
+/**
+ * Streams the result of each test of a class to a file as soon as it finishes, either as JSON lines or as JUnit XML,
+ * optionally compressed with gzip. Only the tests in progress are held in memory, so that the memory needed does not
+ * depend on the number of tests; in particular, as the XML is written as it goes, its {@code testsuite} element does
+ * not carry the usual totals, which consumers must count from its {@code testcase} elements instead. Each result
+ * gives the name of the test, as rendered from its {@link org.lambdatarunner.DescribeAs @DescribeAs} pattern, and for
+ * a run of a parameterized method, the method and the position of the datum.
+ */
+public class ResultStream {
+    /**
+     * The formats results can be written in.
+     */
+    public enum Format {
+        JSON_LINES(".results.jsonl"),
+        XML(".xml");
+
+        private final String suffix;
+
+        Format(String suffix) {
+            this.suffix = suffix;
+        }
+    }
+
+    private static class Running {
+        final long start = System.nanoTime();
+        Failure failure;
+        boolean skipped;
+    }
+
+    private final Path file;
+
+    private final Format format;
+
+    private Writer writer;
+
+    private JsonWriter json;
+
+    private ResultStream(Path file, Format format) {
+        this.file = file;
+        this.format = format;
+    }
+
+    /**
+     * Create the stream of results of a test class if streamed results have been requested via the
+     * {@code lambdata.results} setting, which names the directory to write them to. The
+     * {@code lambdata.results.format} setting chooses between {@code jsonl} (the default) and {@code xml}, and if
+     * {@code lambdata.results.compress} is true, the file is compressed with gzip.
+     * @param testClass the test class
+     * @return the stream, or null if streamed results have not been requested
+     * @throws IllegalArgumentException if the format is not known
+     */
+    public static ResultStream fromSettings(Class<?> testClass) {
+        Path directory = Settings.getPath("results");
+        if (directory == null) {
+            return null;
+        }
+        String formatName = Settings.get("results.format");
+        Format format;
+        if (formatName == null || formatName.equalsIgnoreCase("jsonl")) {
+            format = Format.JSON_LINES;
+        }
+        else if (formatName.equalsIgnoreCase("xml")) {
+            format = Format.XML;
+        }
+        else {
+            throw new IllegalArgumentException(
+                "Setting lambdata.results.format must be jsonl or xml, but was " + formatName);
+        }
+        String prefix = format == Format.XML ? "TEST-" : "";
+        String suffix = Boolean.parseBoolean(Settings.get("results.compress")) ? format.suffix + ".gz" : format.suffix;
+        return new ResultStream(directory.resolve(prefix + testClass.getName() + suffix), format);
+    }
+
+    /**
+     * Get the file the results are written to.
+     * @return the file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Open the file, replacing any results of an earlier run, and create a listener which writes the result of each
+     * test it is notified of. The stream must be closed once the tests have run.
+     * @param testClass the test class
+     * @param runs the runs of parameterized methods, by description, or null for descriptions of other tests
+     * @return a listener
+     */
+    public RunListener open(Class<?> testClass, Function<Description, ParameterizedFrameworkMethod> runs) {
+        Map<Description, Running> running = Collections.synchronizedMap(new IdentityHashMap<>());
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            OutputStream out = Files.newOutputStream(file);
+            if (file.getFileName().toString().endsWith(".gz")) {
+                out = new GZIPOutputStream(out, 65536);
+            }
+            writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 65536);
+            if (format == Format.XML) {
+                writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+                writer.write("<testsuite name=\"" + escapeXml(testClass.getName()) + "\">\n");
+            }
+            else {
+                json = new JsonWriter(writer);
+            }
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Unable to write test results " + file, e);
+        }
+        return new RunListener() {
+            @Override
+            public void testStarted(Description description) {
+                running.put(description, new Running());
+            }
+
+            @Override
+            public void testFailure(Failure failure) {
+                Running test = running.get(failure.getDescription());
+                if (test == null) {
+                    // a failure outside any test, such as in a before class
+                    write(failure.getDescription(), runs.apply(failure.getDescription()), "failed", 0, failure);
+                }
+                else {
+                    test.failure = failure;
+                }
+            }
+
+            @Override
+            public void testAssumptionFailure(Failure failure) {
+                Running test = running.get(failure.getDescription());
+                if (test != null) {
+                    test.failure = failure;
+                    test.skipped = true;
+                }
+            }
+
+            @Override
+            public void testIgnored(Description description) {
+                write(description, runs.apply(description), "ignored", 0, null);
+            }
+
+            @Override
+            public void testFinished(Description description) {
+                Running test = running.remove(description);
+                if (test != null) {
+                    String status = test.skipped ? "skipped" : test.failure != null ? "failed" : "passed";
+                    write(description, runs.apply(description), status, System.nanoTime() - test.start, test.failure);
+                }
+            }
+        };
+    }
+
+    /**
+     * Finish and close the file.
+     */
+    public synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            if (format == Format.XML) {
+                writer.write("</testsuite>\n");
+            }
+            writer.close();
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Unable to write test results " + file, e);
+        }
+        finally {
+            writer = null;
+            json = null;
+        }
+    }
+
+    private synchronized void write(
+        Description description, ParameterizedFrameworkMethod run, String status, long nanos, Failure failure) {
+        if (writer == null) {
+            return;
+        }
+        String methodName = run == null ? description.getMethodName() : run.getMethod().getName();
+        int index = run == null ? -1 : run.getIndex();
+        try {
+            if (format == Format.XML) {
+                writeXml(description, methodName, index, status, nanos, failure);
+            }
+            else {
+                writeJson(description, methodName, index, status, nanos, failure);
+            }
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Unable to write test results " + file, e);
+        }
+    }
+
+    private void writeJson(Description description, String methodName, int index, String status, long nanos,
+                           Failure failure) throws IOException {
+        json.beginObject()
+            .name("class").value(description.getClassName())
+            .name("method").value(methodName);
+        if (index >= 0) {
+            json.name("index").value(index);
+        }
+        json.name("name").value(name(description))
+            .name("status").value(status)
+            .name("nanos").value(nanos);
+        if (failure != null) {
+            json.name("failure").beginObject()
+                .name("type").value(failure.getException().getClass().getName())
+                .name("message").value(failure.getMessage())
+                .name("trace").value(failure.getTrace())
+                .endObject();
+        }
+        json.endObject().newLine();
+    }
+
+    private void writeXml(Description description, String methodName, int index, String status, long nanos,
+                          Failure failure) throws IOException {
+        writer.write("  <testcase classname=\"" + escapeXml(description.getClassName())
+            + "\" name=\"" + escapeXml(name(description))
+            + "\" time=\"" + String.format(Locale.ROOT, "%.3f", nanos / 1e9) + "\"");
+        if (index < 0 && failure == null && status.equals("passed")) {
+            writer.write("/>\n");
+            return;
+        }
+        writer.write(">\n");
+        if (index >= 0) {
+            writer.write("    <properties>\n");
+            writer.write("      <property name=\"lambdata.method\" value=\"" + escapeXml(methodName) + "\"/>\n");
+            writer.write("      <property name=\"lambdata.index\" value=\"" + index + "\"/>\n");
+            writer.write("    </properties>\n");
+        }
+        if (status.equals("ignored")) {
+            writer.write("    <skipped/>\n");
+        }
+        else if (failure != null) {
+            String element = status.equals("skipped") ? "skipped"
+                : failure.getException() instanceof AssertionError ? "failure" : "error";
+            writer.write("    <" + element);
+            if (failure.getMessage() != null) {
+                writer.write(" message=\"" + escapeXml(failure.getMessage()) + "\"");
+            }
+            writer.write(" type=\"" + escapeXml(failure.getException().getClass().getName()) + "\">");
+            writer.write(escapeXml(failure.getTrace(), false));
+            writer.write("</" + element + ">\n");
+        }
+        writer.write("  </testcase>\n");
+    }
+
+    // the name of a test, or the display name of a failing class or suite
+    private static String name(Description description) {
+        return description.getMethodName() == null ? description.getDisplayName() : description.getMethodName();
+    }
+
+    private static String escapeXml(String text) {
+        return escapeXml(text, true);
+    }
+
+    /**
+     * Escape text for use in XML, replacing characters XML cannot represent. Line breaks and tabs are kept as they are
+     * in content, but escaped in attribute values, which would otherwise have them normalized to spaces.
+     */
+    static String escapeXml(String text, boolean attribute) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String replacement;
+            switch (c) {
+                case '&': replacement = "&amp;"; break;
+                case '<': replacement = "&lt;"; break;
+                case '>': replacement = "&gt;"; break;
+                case '"': replacement = "&quot;"; break;
+                case '\n': replacement = attribute ? "&#10;" : null; break;
+                case '\r': replacement = attribute ? "&#13;" : null; break;
+                case '\t': replacement = attribute ? "&#9;" : null; break;
+                default:
+                    replacement = (c < 0x20 || c == '\uFFFE' || c == '\uFFFF') ? "\uFFFD" : null;
+            }
+            if (replacement != null && escaped == null) {
+                escaped = new StringBuilder(text.length() + 16).append(text, 0, i);
+            }
+            if (escaped != null) {
+                if (replacement == null) {
+                    escaped.append(c);
+                }
+                else {
+                    escaped.append(replacement);
+                }
+            }
+        }
+        return escaped == null ? text : escaped.toString();
+    }
+}
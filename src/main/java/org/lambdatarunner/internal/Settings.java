@@ -0,0 +1,57 @@
+package org.lambdatarunner.internal;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Access to the settings which control optional runner features. A setting named {@code foo.bar} is read from the
+ * system property {@code lambdata.foo.bar}, or, if that is not set, from the environment variable
+ * {@code LAMBDATA_FOO_BAR}.
+ */
+public final class Settings {
+    private Settings() {} // prevent instantiation
+
+    /**
+     * Get the value of a setting.
+     * @param name the name of the setting, without the {@code lambdata.} prefix
+     * @return the value of the setting, or null if it is not set
+     */
+    public static String get(String name) {
+        String value = System.getProperty("lambdata." + name);
+        if (value == null) {
+            value = System.getenv("LAMBDATA_" + name.toUpperCase(Locale.ROOT).replace('.', '_'));
+        }
+        return (value == null || value.trim().isEmpty()) ? null : value.trim();
+    }
+
+    /**
+     * Get the value of a setting as an integer.
+     * @param name the name of the setting, without the {@code lambdata.} prefix
+     * @param defaultValue the value to return if the setting is not set
+     * @return the value of the setting
+     * @throws IllegalArgumentException if the setting is not an integer
+     */
+    public static int getInt(String name, int defaultValue) {
+        String value = get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Setting lambdata." + name + " must be an integer, but was " + value, e);
+        }
+    }
+
+    /**
+     * Get the value of a setting as a path.
+     * @param name the name of the setting, without the {@code lambdata.} prefix
+     * @return the value of the setting, or null if it is not set
+     */
+    public static Path getPath(String name) {
+        String value = get(name);
+        return value == null ? null : Paths.get(value);
+    }
+}
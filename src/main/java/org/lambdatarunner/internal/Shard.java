@@ -0,0 +1,77 @@
+package org.lambdatarunner.internal;
+
+import java.lang.reflect.Method;
+
+/**
+ * One of a number of disjoint slices of the runs of a test suite, so that the suite can be split over several JVMs.
+ * Each run is assigned to a shard by a hash of its {@link StableIds stable id}, so that every JVM given the same shard
+ * count agrees on the assignment without coordination.
+ */
+public class Shard {
+    private final int index;
+
+    private final int count;
+
+    /**
+     * Create a new instance.
+     * @param index the index of this shard, from zero
+     * @param count the total number of shards
+     * @throws IllegalArgumentException if the count is not positive, or the index is not less than the count
+     */
+    public Shard(int index, int count) {
+        if (count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException(
+                "Shard index must be between 0 and " + (count - 1) + ", with a shard count of " + count +
+                    ", but was " + index);
+        }
+        this.index = index;
+        this.count = count;
+    }
+
+    /**
+     * Create an instance from the {@code lambdata.shard.index} and {@code lambdata.shard.count} settings.
+     * @return a new instance, or null if sharding has not been requested
+     * @throws IllegalArgumentException if the settings are invalid
+     */
+    public static Shard fromSettings() {
+        int count = Settings.getInt("shard.count", 1);
+        int index = Settings.getInt("shard.index", 0);
+        return count == 1 && index == 0 ? null : new Shard(index, count);
+    }
+
+    /**
+     * Determine if a test method which is not parameterized belongs to this shard.
+     * @param testClass the test class
+     * @param method the test method
+     * @return true if the method should be run in this shard
+     */
+    public boolean contains(Class<?> testClass, Method method) {
+        return contains(StableIds.of(testClass, method));
+    }
+
+    /**
+     * Determine if a single run of a parameterized test method belongs to this shard.
+     * @param testClass the test class
+     * @param method the test method
+     * @param index the position of the datum for the run, from zero
+     * @return true if the run should be run in this shard
+     */
+    public boolean contains(Class<?> testClass, Method method, int index) {
+        return contains(StableIds.of(testClass, method, index));
+    }
+
+    private boolean contains(String id) {
+        return Math.floorMod(mix(id.hashCode()), count) == index;
+    }
+
+    // String.hashCode is specified, and so stable across JVMs, but ids differing only in a trailing index have
+    // consecutive hashes; mixing spreads them evenly however the shard count relates to the number of data
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
@@ -0,0 +1,33 @@
+package org.lambdatarunner.internal;
+
+import java.lang.reflect.Method;
+
+/**
+ * Creates the stable ids of tests, which identify them in the same way in every JVM and from one run to the next.
+ * The id of a test method which is not parameterized is {@code class#method}, and that of a single run of a
+ * parameterized test method is {@code class#method[index]}, where the index is the zero-based position of its datum.
+ */
+public final class StableIds {
+    private StableIds() {} // prevent instantiation
+
+    /**
+     * Get the id of a test method which is not parameterized.
+     * @param testClass the test class
+     * @param method the test method
+     * @return the id of the test
+     */
+    public static String of(Class<?> testClass, Method method) {
+        return testClass.getName() + "#" + method.getName();
+    }
+
+    /**
+     * Get the id of a single run of a parameterized test method.
+     * @param testClass the test class
+     * @param method the test method
+     * @param index the zero-based position of the datum for the run
+     * @return the id of the run
+     */
+    public static String of(Class<?> testClass, Method method, int index) {
+        return of(testClass, method) + "[" + index + "]";
+    }
+}
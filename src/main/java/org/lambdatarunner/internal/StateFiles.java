@@ -0,0 +1,130 @@
+package org.lambdatarunner.internal;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Reads and writes the files the runner keeps between runs, such as histories, caches, baselines and snapshots.
+ * Files are replaced in one step, so that a concurrent reader never sees a partial file.
+ */
+public final class StateFiles {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private StateFiles() {} // prevent instantiation
+
+    /**
+     * Writes the content of a file.
+     */
+    @FunctionalInterface
+    public interface Content<T> {
+        void writeTo(T output) throws IOException;
+    }
+
+    /**
+     * Reads a file.
+     */
+    @FunctionalInterface
+    public interface Reader<T> {
+        T read(Path file) throws Exception;
+    }
+
+    /**
+     * Replace a file, creating its directory if need be. The content is written to a temporary file in the same
+     * directory, which is then moved into place atomically.
+     * @param file the file
+     * @param content writes the content of the file
+     * @throws IOException if the file cannot be written
+     */
+    public static void replace(Path file, Content<OutputStream> content) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream output = Files.newOutputStream(temporary)) {
+                content.writeTo(output);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Replace a text file, as by {@link #replace}, writing it in UTF-8.
+     * @param file the file
+     * @param content writes the content of the file
+     * @throws IOException if the file cannot be written
+     */
+    public static void replaceText(Path file, Content<Writer> content) throws IOException {
+        replace(file, output -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            content.writeTo(writer);
+            writer.flush();
+        });
+    }
+
+    /**
+     * Read a file which only saves work, such as a history or a snapshot, and so can be discarded if it cannot be
+     * read.
+     * @param file the file
+     * @param reader reads the file, returning null if it is not in the expected format
+     * @return what was read, or null if the file does not exist or cannot be read
+     */
+    public static <T> T readDiscardable(Path file, Reader<T> reader) {
+        if (! Files.isReadable(file)) {
+            return null;
+        }
+        try {
+            return reader.read(file);
+        }
+        catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Create a SHA-256 digest.
+     * @return a new digest
+     */
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JVM supports SHA-256
+        }
+    }
+
+    /**
+     * Get the SHA-256 hash of some bytes.
+     * @param bytes the bytes
+     * @return the hash, in hexadecimal
+     */
+    public static String sha256(byte[] bytes) {
+        return hex(sha256().digest(bytes));
+    }
+
+    /**
+     * Format bytes in hexadecimal.
+     * @param bytes the bytes
+     * @return the bytes, two lower case digits each
+     */
+    public static String hex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[2 * i] = HEX[(bytes[i] >> 4) & 0xf];
+            chars[2 * i + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(chars);
+    }
+}
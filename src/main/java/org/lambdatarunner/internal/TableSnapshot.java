@@ -0,0 +1,129 @@
+package org.lambdatarunner.internal;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A table of data saved to a file, so that it can be read by later JVMs rather than being built again. A snapshot is
+ * a short header, identifying the format, followed by the rows of the table in Java serialization; it is read through
+ * a memory mapping of the file, and replaced in one step when written.
+ */
+public final class TableSnapshot {
+    private static final int MAGIC = 0x4c4d4454; // "LMDT"
+
+    private static final int FORMAT_VERSION = 1;
+
+    private TableSnapshot() {} // prevent instantiation
+
+    /**
+     * Get the file a table is kept in.
+     * @param directory the directory snapshots are kept in
+     * @param name the name of the table
+     * @param version the version of the table
+     * @return a file whose name is a readable form of the name of the table, followed by a hash of its name and version
+     */
+    public static Path file(Path directory, String name, String version) {
+        // the readable form may be shared by several names, so the name is hashed as well
+        String hash = StateFiles.sha256((name + '\0' + version).getBytes(StandardCharsets.UTF_8));
+        return directory.resolve(name.replaceAll("[^A-Za-z0-9._-]", "_") + "-" + hash.substring(0, 16) + ".table");
+    }
+
+    /**
+     * Read a snapshot.
+     * @param file the file the snapshot is kept in
+     * @return the rows of the table, or null if the file does not exist or cannot be read, as it is incomplete or
+     * was written by an incompatible version of the table's classes
+     */
+    public static <T> List<T> read(Path file) {
+        return StateFiles.readDiscardable(file, path -> {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                DataInputStream header = new DataInputStream(new ByteBufferInputStream(buffer));
+                if (header.readInt() != MAGIC || header.readInt() != FORMAT_VERSION) {
+                    return null;
+                }
+                int size = header.readInt();
+                List<T> rows = new ArrayList<>(size);
+                ObjectInputStream input = new ObjectInputStream(new ByteBufferInputStream(buffer));
+                for (int i = 0; i < size; i++) {
+                    @SuppressWarnings("unchecked")
+                    T row = (T) input.readObject();
+                    rows.add(row);
+                }
+                return rows;
+            }
+        });
+    }
+
+    /**
+     * Write a snapshot, replacing any previous one. Failures are ignored, other than leaving no snapshot, as a table
+     * whose rows cannot be serialized can still be built each time it is needed.
+     * @param file the file to keep the snapshot in
+     * @param rows the rows of the table
+     * @return true if the snapshot was written
+     */
+    public static boolean write(Path file, List<?> rows) {
+        try {
+            StateFiles.replace(file, output -> {
+                DataOutputStream header = new DataOutputStream(output);
+                header.writeInt(MAGIC);
+                header.writeInt(FORMAT_VERSION);
+                header.writeInt(rows.size());
+                header.flush();
+                ObjectOutputStream objects = new ObjectOutputStream(output);
+                for (Object row: rows) {
+                    objects.writeObject(row);
+                    // rows are independent, so back references to earlier rows need not be kept
+                    objects.reset();
+                }
+                objects.flush();
+            });
+            return true;
+        }
+        catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (! buffer.hasRemaining()) {
+                return -1;
+            }
+            int read = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, read);
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
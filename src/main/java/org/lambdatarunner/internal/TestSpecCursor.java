@@ -0,0 +1,146 @@
+package org.lambdatarunner.internal;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.lambdatarunner.TestSpec;
+import org.lambdatarunner.TestSpecs;
+
+/**
+ * Provides access by index to the specs of a {@link TestSpecs}. For specs held in a list, this is simply a list lookup.
+ * For lazily sourced specs, the source is read sequentially, so that runs in declaration order only ever hold the spec
+ * currently being run; asking for an earlier spec than the last one returned restarts the source, as does asking for
+ * any spec once the source failed.
+ */
+public abstract class TestSpecCursor implements AutoCloseable {
+
+    /**
+     * Create a cursor over the given specs.
+     * @param testSpecs the specs to provide access to
+     * @return a cursor
+     */
+    public static TestSpecCursor of(TestSpecs testSpecs) {
+        return testSpecs.isLazy() ? new Sequential(testSpecs) : new Indexed(testSpecs.getSpecs());
+    }
+
+    /**
+     * Get the spec at the given position.
+     * @param index the zero-based index of the spec
+     * @return the spec at position {@code index}
+     * @throws IllegalStateException if there are not more than {@code index} specs
+     */
+    public abstract TestSpec get(int index);
+
+    /**
+     * Determine whether the specs are held in memory, so that holding on to their data costs nothing further.
+     * @return true if the specs are held in memory
+     */
+    public boolean isInMemory() {
+        return false;
+    }
+
+    /**
+     * Release the spec at the given position, once it has been run, so that its datum can be garbage collected. For
+     * specs held in memory, the spec may not be looked up again; lazily sourced specs are not held anyway.
+     * @param index the zero-based index of the spec
+     */
+    public void release(int index) {}
+
+    @Override
+    public void close() {}
+
+    private static class Indexed extends TestSpecCursor {
+        // copied from the list of specs, so that run specs can be released even if the list cannot be changed
+        private final TestSpec[] specs;
+
+        Indexed(List<TestSpec> specs) {
+            this.specs = specs.toArray(new TestSpec[specs.size()]);
+        }
+
+        @Override
+        public TestSpec get(int index) {
+            if (index >= specs.length) {
+                throw tooFewSpecs(index);
+            }
+            TestSpec spec = specs[index];
+            if (spec == null) {
+                throw new IllegalStateException("The spec at position " + index + " has already been run and released");
+            }
+            return spec;
+        }
+
+        @Override
+        public void release(int index) {
+            if (index < specs.length) {
+                specs[index] = null;
+            }
+        }
+
+        @Override
+        public boolean isInMemory() {
+            return true;
+        }
+    }
+
+    private static class Sequential extends TestSpecCursor {
+        private final TestSpecs testSpecs;
+        private Stream<TestSpec> stream;
+        private Iterator<TestSpec> iterator;
+        private int position;
+        private TestSpec current;
+
+        Sequential(TestSpecs testSpecs) {
+            this.testSpecs = testSpecs;
+        }
+
+        @Override
+        public synchronized TestSpec get(int index) {
+            // the same spec may be looked up more than once in a row, which should not restart the stream
+            if (iterator != null && index == position - 1) {
+                return current;
+            }
+            if (iterator == null || index < position) {
+                close();
+                stream = testSpecs.stream();
+                iterator = stream.iterator();
+                position = 0;
+            }
+            try {
+                while (position < index) {
+                    next(index);
+                }
+                return next(index);
+            }
+            catch (RuntimeException e) {
+                // the source cannot be relied on to carry on where it failed, so it is read again for the next spec
+                close();
+                throw e;
+            }
+        }
+
+        private TestSpec next(int index) {
+            if (!iterator.hasNext()) {
+                throw tooFewSpecs(index);
+            }
+            position++;
+            current = iterator.next();
+            return current;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (stream != null) {
+                stream.close();
+                stream = null;
+                iterator = null;
+                current = null;
+            }
+        }
+    }
+
+    private static IllegalStateException tooFewSpecs(int index) {
+        return new IllegalStateException("Expected at least " + (index + 1) + " specs, but fewer were produced;"
+            + " the specs of a test method must be the same each time they are produced");
+    }
+}
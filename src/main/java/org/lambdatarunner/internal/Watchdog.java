@@ -0,0 +1,108 @@
+package org.lambdatarunner.internal;
+
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.runners.model.Statement;
+import org.lambdatarunner.DatumTimeout;
+
+/**
+ * Enforces the {@link DatumTimeout @DatumTimeout} of a test method. Statements are run on the calling thread, with an
+ * alarm scheduled on a single daemon thread shared by every test, which interrupts the statement if it is still
+ * running when the alarm goes off. Alarms are cancelled, and removed from the schedule, as soon as their statement
+ * completes, so that the cost of a timeout which does not expire is that of scheduling and cancelling a task.
+ */
+public class Watchdog {
+    private static final ScheduledThreadPoolExecutor ALARMS = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "lambdata-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        ALARMS.setRemoveOnCancelPolicy(true);
+    }
+
+    private static final int RUNNING = 0;
+    private static final int FINISHED = 1;
+    private static final int INTERRUPTING = 2;
+    private static final int INTERRUPTED = 3;
+
+    private final long timeout;
+
+    private final TimeUnit unit;
+
+    /**
+     * Create a new instance.
+     * @param timeout the time a statement may take
+     * @param unit the unit of {@code timeout}
+     */
+    public Watchdog(long timeout, TimeUnit unit) {
+        this.timeout = timeout;
+        this.unit = unit;
+    }
+
+    /**
+     * Create the watchdog of a test method, as given by the {@link DatumTimeout @DatumTimeout} annotation of the
+     * method or, failing that, of its test class.
+     * @param testClass the test class
+     * @param method the test method
+     * @return a new watchdog, or null if neither is annotated
+     */
+    public static Watchdog of(Class<?> testClass, Method method) {
+        DatumTimeout datumTimeout = method.getAnnotation(DatumTimeout.class);
+        if (datumTimeout == null) {
+            datumTimeout = testClass.getAnnotation(DatumTimeout.class);
+        }
+        return datumTimeout == null ? null : new Watchdog(datumTimeout.value(), datumTimeout.unit());
+    }
+
+    /**
+     * Wrap a statement, so that it is interrupted, and fails, if it takes longer than the timeout.
+     * @param next the statement to wrap
+     * @return the wrapping statement
+     */
+    public Statement apply(Statement next) {
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                Thread thread = Thread.currentThread();
+                AtomicInteger state = new AtomicInteger(RUNNING);
+                StackTraceElement[][] stackTrace = new StackTraceElement[1][];
+                ScheduledFuture<?> alarm = ALARMS.schedule(() -> {
+                    if (state.compareAndSet(RUNNING, INTERRUPTING)) {
+                        stackTrace[0] = thread.getStackTrace();
+                        thread.interrupt();
+                        state.set(INTERRUPTED);
+                    }
+                }, timeout, unit);
+                try {
+                    next.evaluate();
+                }
+                catch (Throwable e) {
+                    if (state.compareAndSet(RUNNING, FINISHED)) {
+                        throw e;
+                    }
+                }
+                finally {
+                    alarm.cancel(false);
+                }
+                if (! state.compareAndSet(RUNNING, FINISHED)) {
+                    // wait for the interrupt to be delivered, so that it can be cleared before the next test
+                    while (state.get() != INTERRUPTED) {
+                        Thread.yield();
+                    }
+                    Thread.interrupted();
+                    Exception timedOut = new Exception(
+                        "test timed out after " + timeout + " " + unit.name().toLowerCase(Locale.ROOT));
+                    timedOut.setStackTrace(stackTrace[0]);
+                    throw timedOut;
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,124 @@
+package org.lambdatarunner;
+
+import static org.junit.Assert.*;
+import static org.lambdatarunner.Lambdata.datums;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DataSourceTest {
+    @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path write(String text) throws IOException {
+        return Files.write(temporaryFolder.newFile().toPath(), text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<List<String>> rows(DataSource source) {
+        try (Stream<String[]> rows = source.rows()) {
+            return rows.map(Arrays::asList).collect(Collectors.toList());
+        }
+    }
+
+    @SafeVarargs
+    private static List<List<String>> list(List<String>... rows) {
+        return Arrays.asList(rows);
+    }
+
+    private static List<String> row(String... fields) {
+        return Arrays.asList(fields);
+    }
+
+    @Test
+    public void csv() throws Exception {
+        Path file = write("name,comment\r\nplain,\"quoted, with \"\"quotes\"\"\"\n\nmulti,\"two\nlines\"\n"
+            + "empty,\n\u00fcn\u00efc\u00f6d\u00e9,\u20ac\n");
+        assertEquals(
+            list(
+                row("plain", "quoted, with \"quotes\""),
+                row("multi", "two\nlines"),
+                row("empty", ""),
+                row("\u00fcn\u00efc\u00f6d\u00e9", "\u20ac")),
+            rows(DataSource.csv(file).withHeader()));
+        assertEquals(row("name", "comment"), rows(DataSource.csv(file)).get(0));
+    }
+
+    @Test
+    public void csvWithSeparator() throws Exception {
+        assertEquals(list(row("a", "b,c"), row("", "")), rows(DataSource.csv(write("a;b,c\n;")).withSeparator(';')));
+    }
+
+    @Test
+    public void malformedCsv() throws Exception {
+        try {
+            rows(DataSource.csv(write("a,b\n\"c\"d,e\n")));
+            fail();
+        }
+        catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("record 2"));
+        }
+    }
+
+    @Test
+    public void jsonLines() throws Exception {
+        Path file = write("{\"a\": 1, \"b\": \"x\\ty \\u20ac\", \"c\": {\"d\": [1, \"]\"]}}\n\n"
+            + "{\"b\": null, \"a\": true}\r\n[2, \"z\", [3]]\n");
+        assertEquals(
+            list(row("1", "x\ty \u20ac", "{\"d\": [1, \"]\"]}"), row("true", null, null), row("2", "z", "[3]")),
+            rows(DataSource.jsonLines(file, "a", "b", "c")));
+        assertEquals(row("1", "x\ty \u20ac", "{\"d\": [1, \"]\"]}"), rows(DataSource.jsonLines(file)).get(0));
+    }
+
+    @Test
+    public void malformedJsonLines() throws Exception {
+        try {
+            rows(DataSource.jsonLines(write("[1]\n{\"a\" 1}\n")));
+            fail();
+        }
+        catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("line 2, column 6"));
+        }
+    }
+
+    @Test
+    public void datumsConvertsFields() throws Exception {
+        DataSource source = DataSource.csv(write("1,2.50,x,ignored\n3,4,y\n"));
+        try (Stream<Datum3<Integer, BigDecimal, String>> data =
+                 datums(source, Integer::valueOf, BigDecimal::new, value -> value).get()) {
+            assertEquals(
+                list(row("1", "2.50", "x"), row("3", "4", "y")),
+                data.map(datum -> Stream.of(datum.values()).map(String::valueOf).collect(Collectors.toList()))
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void datumsReportsInvalidRows() throws Exception {
+        DataSource source = DataSource.csv(write("1,2\n3,x\n4\n"));
+        try (Stream<Datum2<Integer, Integer>> data = datums(source, Integer::valueOf, Integer::valueOf).get()) {
+            data.skip(1).findFirst();
+            fail();
+        }
+        catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("row 2: cannot convert field 2 \"x\""));
+            assertTrue(e.getCause() instanceof NumberFormatException);
+        }
+        try (Stream<Datum2<Integer, Integer>> data = datums(source, Integer::valueOf, value -> 0).get()) {
+            data.count();
+            fail();
+        }
+        catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("row 3: expected 2 fields, but found 1"));
+        }
+    }
+}
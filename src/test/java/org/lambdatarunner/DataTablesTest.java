@@ -0,0 +1,79 @@
+package org.lambdatarunner;
+
+import static org.junit.Assert.*;
+import static org.lambdatarunner.Lambdata.datum;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.lambdatarunner.internal.TableSnapshot;
+
+public class DataTablesTest {
+    @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static List<Integer> values(Supplier<Stream<Datum1<Integer>>> table) {
+        return table.get().map(datum -> (Integer) datum.values()[0]).collect(Collectors.toList());
+    }
+
+    @Test
+    public void builtOncePerJvm() {
+        AtomicInteger builds = new AtomicInteger();
+        Supplier<Stream<Datum1<Integer>>> builder = () -> {
+            builds.incrementAndGet();
+            return IntStream.range(0, 3).mapToObj(Lambdata::datum);
+        };
+        Supplier<Stream<Datum1<Integer>>> first = DataTables.shared("builtOncePerJvm", builder);
+        Supplier<Stream<Datum1<Integer>>> second = DataTables.shared("builtOncePerJvm", builder);
+        assertEquals(0, builds.get());
+        assertEquals(Arrays.asList(0, 1, 2), values(first));
+        assertEquals(Arrays.asList(0, 1, 2), values(second));
+        assertEquals(Arrays.asList(0, 1, 2), values(first));
+        assertEquals(1, builds.get());
+    }
+
+    @Test
+    public void snapshot() {
+        System.setProperty("lambdata.tables", temporaryFolder.getRoot().toString());
+        try {
+            AtomicInteger builds = new AtomicInteger();
+            assertEquals(Arrays.asList(4, 5), values(DataTables.shared("snapshot", "1", () -> {
+                builds.incrementAndGet();
+                return Stream.of(datum(4), datum(5));
+            })));
+            Path file = TableSnapshot.file(temporaryFolder.getRoot().toPath(), "snapshot", "1");
+            assertTrue(Files.exists(file));
+            List<Datum1<Integer>> rows = TableSnapshot.read(file);
+            assertEquals(Arrays.asList(4, 5), values(rows::stream));
+            assertEquals(1, builds.get());
+        }
+        finally {
+            System.clearProperty("lambdata.tables");
+        }
+    }
+
+    @Test
+    public void unreadableSnapshot() throws Exception {
+        Path file = temporaryFolder.getRoot().toPath().resolve("broken.table");
+        assertNull(TableSnapshot.read(file));
+        Files.write(file, new byte[] {1, 2, 3});
+        assertNull(TableSnapshot.read(file));
+        assertFalse(TableSnapshot.write(file, Arrays.asList(datum(new Object()))));
+        assertNotEquals(TableSnapshot.file(file.getParent(), "t", "1"), TableSnapshot.file(file.getParent(), "t", "2"));
+    }
+
+    @Test
+    public void snapshotFilesDistinguishNames() {
+        Path directory = temporaryFolder.getRoot().toPath();
+        assertNotEquals(TableSnapshot.file(directory, "a/b", "1"), TableSnapshot.file(directory, "a_b", "1"));
+    }
+}
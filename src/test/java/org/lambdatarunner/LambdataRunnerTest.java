@@ -2,15 +2,48 @@ package org.lambdatarunner;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Ignore;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.Description;
 import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.junit.runner.Result;
+import org.junit.rules.MethodRule;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.TestName;
+import org.junit.rules.TestRule;
 import org.junit.runner.RunWith;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.Statement;
+import org.junit.runners.model.TestClass;
 
 import static org.lambdatarunner.Lambdata.*;
 
@@ -20,6 +53,8 @@ public class LambdataRunnerTest {
     private final static Exception EXCEPTION1 = new Exception("random1");
     private final static Exception EXCEPTION2 = new Exception("random2");
 
+    @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @RunWith(LambdataRunner.class)
     public static class SimpleTestSuccess {
         @Test public void testSucceed() { assertTrue(true); }
@@ -327,6 +362,1217 @@ public class LambdataRunnerTest {
             testRunFinished(0, 2));
     }
 
+    @RunWith(LambdataRunner.class)
+    @Parallel(threads = 4)
+    public static class ParallelTest {
+        static final Set<Object> instancesUsed = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        static final Set<Thread> threadsUsed = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+        boolean initialized = false;
+        @Before public void before() {
+            if (initialized) { throw new RuntimeException(); }
+            initialized = true;
+        }
+        @After public void after() { initialized = false; }
+        @Test public TestSpecs testParallel() {
+            List<Datum1<Integer>> data = IntStream.range(0, 200).mapToObj(Lambdata::datum).collect(Collectors.toList());
+            return specs((Integer i) -> {
+                    assertTrue(initialized);
+                    instancesUsed.add(this);
+                    threadsUsed.add(Thread.currentThread());
+                    Thread.sleep(1);
+                },
+                data);
+        }
+    }
+
+    @Test
+    public void parallelRun() throws Exception {
+        Result result = new JUnitCore().run(ParallelTest.class);
+        assertEquals(Collections.emptyList(), result.getFailures());
+        assertEquals(200, result.getRunCount());
+        assertTrue(ParallelTest.threadsUsed.size() > 1);
+        assertFalse(ParallelTest.threadsUsed.contains(Thread.currentThread()));
+        assertEquals(ParallelTest.threadsUsed.size(), ParallelTest.instancesUsed.size());
+    }
+
+    @RunWith(LambdataRunner.class)
+    public static class ParameterizedTestLazySource {
+        static int streamsOpened = 0;
+        static int streamsClosed = 0;
+
+        @DescribeAs("{0}")
+        @Test public TestSpecs testLazy() {
+            return specs(
+                (Integer i) -> assertTrue(i < 3),
+                () -> {
+                    streamsOpened++;
+                    return IntStream.rangeClosed(1, 3).mapToObj(Lambdata::datum).onClose(() -> streamsClosed++);
+                });
+        }
+    }
+
+    @Test
+    public void lazySource() throws Exception {
+        Class<ParameterizedTestLazySource> testClass = ParameterizedTestLazySource.class;
+        Description testDescription1 = Description.createTestDescription(testClass, "testLazy: 1");
+        Description testDescription2 = Description.createTestDescription(testClass, "testLazy: 2");
+        Description testDescription3 = Description.createTestDescription(testClass, "testLazy: 3");
+        AssertionError failure = new AssertionError();
+        runTests(testClass).verifyEvents(
+            testRunStarted(),
+            testStarted(testDescription1),
+            testFinished(testDescription1),
+            testStarted(testDescription2),
+            testFinished(testDescription2),
+            testStarted(testDescription3),
+            testFailure(testDescription3, failure),
+            testFinished(testDescription3),
+            testRunFinished(0, 3, new FailureMirror(testDescription3, failure)));
+        // once to describe the tests, and once to run them
+        assertEquals(2, ParameterizedTestLazySource.streamsOpened);
+        assertEquals(2, ParameterizedTestLazySource.streamsClosed);
+    }
+
+    @RunWith(LambdataRunner.class)
+    public static class ParameterizedTestBatched {
+        static int beforeCount = 0;
+        static int afterCount = 0;
+
+        @Before public void before() { beforeCount++; }
+        @After public void after() { afterCount++; }
+        @Batched(size = 2)
+        @Test public TestSpecs testBatched() {
+            return specs((Integer i) -> {
+                    if (i == 2) { throw ASSERTION_ERROR1; }
+                },
+                datum(1),
+                datum(2),
+                datum(3));
+        }
+    }
+
+    @Test
+    public void batchedRun() throws Exception {
+        Class<ParameterizedTestBatched> testClass = ParameterizedTestBatched.class;
+        Description testDescription1 = Description.createTestDescription(testClass, "testBatched: 1");
+        Description testDescription2 = Description.createTestDescription(testClass, "testBatched: 2");
+        Description testDescription3 = Description.createTestDescription(testClass, "testBatched: 3");
+        runTests(testClass).verifyEvents(
+            testRunStarted(),
+            testStarted(testDescription1),
+            testFinished(testDescription1),
+            testStarted(testDescription2),
+            testFailure(testDescription2, ASSERTION_ERROR1),
+            testFinished(testDescription2),
+            testStarted(testDescription3),
+            testFinished(testDescription3),
+            testRunFinished(0, 3, new FailureMirror(testDescription2, ASSERTION_ERROR1)));
+        assertEquals(2, ParameterizedTestBatched.beforeCount);
+        assertEquals(2, ParameterizedTestBatched.afterCount);
+    }
+
+    @RunWith(LambdataRunner.class)
+    public static class ParameterizedTestBatchedBeforeFailure {
+        @Before public void before() throws Exception { throw EXCEPTION1; }
+        @Batched
+        @Test public TestSpecs testBatched() {
+            return specs((Integer i) -> { assertTrue(true); },
+                datum(1),
+                datum(2));
+        }
+    }
+
+    @Test
+    public void batchedBeforeFailure() throws Exception {
+        Class<ParameterizedTestBatchedBeforeFailure> testClass = ParameterizedTestBatchedBeforeFailure.class;
+        Description testDescription1 = Description.createTestDescription(testClass, "testBatched: 1");
+        Description testDescription2 = Description.createTestDescription(testClass, "testBatched: 2");
+        runTests(testClass).verifyEvents(
+            testRunStarted(),
+            testStarted(testDescription1),
+            testFailure(testDescription1, EXCEPTION1),
+            testFinished(testDescription1),
+            testStarted(testDescription2),
+            testFailure(testDescription2, EXCEPTION1),
+            testFinished(testDescription2),
+            testRunFinished(0, 2,
+                new FailureMirror(testDescription1, EXCEPTION1),
+                new FailureMirror(testDescription2, EXCEPTION1)));
+    }
+
+    @RunWith(LambdataRunner.class)
+    public static class ParameterizedTestBatchedAfterFailure {
+        @After public void after() throws Exception { throw EXCEPTION1; }
+        @Batched
+        @Test public TestSpecs testBatched() {
+            return specs((Integer i) -> { assertTrue(true); },
+                datum(1),
+                datum(2));
+        }
+    }
+
+    @Test
+    public void batchedAfterFailure() throws Exception {
+        Class<ParameterizedTestBatchedAfterFailure> testClass = ParameterizedTestBatchedAfterFailure.class;
+        Description testDescription1 = Description.createTestDescription(testClass, "testBatched: 1");
+        Description testDescription2 = Description.createTestDescription(testClass, "testBatched: 2");
+        runTests(testClass).verifyEvents(
+            testRunStarted(),
+            testStarted(testDescription1),
+            testFinished(testDescription1),
+            testStarted(testDescription2),
+            testFailure(testDescription2, EXCEPTION1),
+            testFinished(testDescription2),
+            testRunFinished(0, 2, new FailureMirror(testDescription2, EXCEPTION1)));
+    }
+
+    @RunWith(LambdataRunner.class)
+    public static class ParameterizedTestTimed {
+        @DescribeAs("sleep {0}")
+        @Test public TestSpecs testSleep() {
+            return specs((Integer i) -> Thread.sleep(i),
+                datum(1),
+                datum(40),
+                datum(20));
+        }
+    }
+
+    @Test
+    public void timingReport() throws Exception {
+        Path reportDirectory = temporaryFolder.getRoot().toPath();
+        System.setProperty("lambdata.timings", reportDirectory.toString());
+        System.setProperty("lambdata.timings.slowest", "2");
+        try {
+            assertTrue(new JUnitCore().run(ParameterizedTestTimed.class).wasSuccessful());
+        }
+        finally {
+            System.clearProperty("lambdata.timings");
+            System.clearProperty("lambdata.timings.slowest");
+        }
+        String report = new String(
+            Files.readAllBytes(reportDirectory.resolve(ParameterizedTestTimed.class.getName() + ".json")),
+            StandardCharsets.UTF_8);
+        assertTrue(report, report.startsWith(
+            "{\"class\":\"" + ParameterizedTestTimed.class.getName() + "\",\"methods\":[{\"method\":\"testSleep\",\"count\":3,"));
+        assertTrue(report, report.contains(
+            "\"slowest\":[{\"method\":\"testSleep\",\"index\":1,\"name\":\"testSleep: sleep 40\",\"nanos\":"));
+        assertTrue(report, report.contains("},{\"method\":\"testSleep\",\"index\":2,\"name\":\"testSleep: sleep 20\""));
+        assertFalse(report, report.contains("sleep 1\""));
+    }
+
+    @RunWith(LambdataRunner.class)
+    public static class ParameterizedTestSharded {
+        @DescribeAs("{0}")
+        @Test public TestSpecs testSharded() {
+            return specs((Integer i) -> assertTrue(i >= 0), () -> IntStream.range(0, 30).mapToObj(Lambdata::datum));
+        }
+
+        @Test public void testUnsharded() { assertTrue(true); }
+    }
+
+    @Test
+    public void shardedRun() throws Exception {
+        List<String> all = startedTests(ParameterizedTestSharded.class);
+        assertEquals(31, all.size());
+        List<String> sharded = new ArrayList<>();
+        System.setProperty("lambdata.shard.count", "3");
+        try {
+            for (int shard = 0; shard < 3; shard++) {
+                System.setProperty("lambdata.shard.index", Integer.toString(shard));
+                List<String> started = startedTests(ParameterizedTestSharded.class);
+                assertTrue(started.toString(), started.size() < all.size());
+                assertEquals(started, startedTests(ParameterizedTestSharded.class));
+                sharded.addAll(started);
+            }
+        }
+        finally {
+            System.clearProperty("lambdata.shard.count");
+            System.clearProperty("lambdata.shard.index");
+        }
+        Collections.sort(all);
+        Collections.sort(sharded);
+        assertEquals(all, sharded);
+    }
+
+    @RunWith(LambdataRunner.class)
+    public static class ParameterizedTestSelected {
+        static final List<Integer> run = new ArrayList<>();
+
+        @DescribeAs("{0}")
+        @Test public TestSpecs testSelected() {
+            return specs((String s, Integer i) -> run.add(i),
+                datum("a", 0),
+                datum("b", 1),
+                datum("a", 2),
+                datum("c", 3));
+        }
+
+        @Test public void testPlain() { run.add(-1); }
+    }
+
+    @Test
+    public void descriptionCached() throws Exception {
+        LambdataRunner runner = new LambdataRunner(ParameterizedTestSelected.class);
+        assertSame(runner.getDescription(), runner.getDescription());
+    }
+
+    @Test
+    public void datumFilter() throws Exception {
+        Class<ParameterizedTestSelected> testClass = ParameterizedTestSelected.class;
+        LambdataRunner runner = new LambdataRunner(testClass);
+        runner.filter(DatumFilter.select("ParameterizedTestSelected#testSelected[2..3]"));
+        Description description = runner.getDescription();
+        assertEquals(1, description.getChildren().size());
+        assertEquals(
+            Arrays.asList(
+                Description.createTestDescription(testClass, "testSelected: a"),
+                Description.createTestDescription(testClass, "testSelected: c")),
+            description.getChildren().get(0).getChildren());
+
+        ParameterizedTestSelected.run.clear();
+        assertTrue(new JUnitCore().run(Request.runner(runner)).wasSuccessful());
+        assertEquals(Arrays.asList(2, 3), ParameterizedTestSelected.run);
+    }
+
+    @Test
+    public void datumFilterByName() throws Exception {
+        LambdataRunner runner = new LambdataRunner(ParameterizedTestSelected.class);
+        runner.filter(Filter.matchMethodDescription(
+            Description.createTestDescription(ParameterizedTestSelected.class, "testPlain")));
+        assertEquals(1, runner.getDescription().testCount());
+
+        ParameterizedTestSelected.run.clear();
+        assertTrue(new JUnitCore().run(Request.runner(runner)).wasSuccessful());
+        assertEquals(Collections.singletonList(-1), ParameterizedTestSelected.run);
+    }
+
+    public static class Named {
+        static final List<String> named = new ArrayList<>();
+
+        final String name;
+
+        Named(String name) { this.name = name; }
+
+        @Override public String toString() {
+            named.add(name);
+            return name;
+        }
+    }
+
+    @RunWith(LambdataRunner.class)
+    public static class ParameterizedTestNamedLazily {
+        @DescribeAs("{0}")
+        @Test public TestSpecs testNamed() {
+            return specs((Named named) -> assertNotNull(named),
+                () -> IntStream.range(0, 100).mapToObj(i -> datum(new Named("n" + i))));
+        }
+
+        @DescribeAs("{0}")
+        @Batched(size = 10)
+        @Test public TestSpecs testNamedBatched() {
+            return specs((Named named) -> assertNotNull(named),
+                IntStream.range(0, 100).mapToObj(i -> datum(new Named("b" + i))).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void datumFilterNamesOnlySelected() throws Exception {
+        Named.named.clear();
+        LambdataRunner runner = new LambdataRunner(ParameterizedTestNamedLazily.class);
+        // spec methods are not called until the tests are needed, and then only those named by the filter
+        assertEquals(Collections.emptyList(), Named.named);
+
+        runner.filter(DatumFilter.select("testNamedBatched[42]"));
+        assertTrue(new JUnitCore().run(Request.runner(runner)).wasSuccessful());
+        assertEquals(Collections.singletonList("b42"), Named.named);
+    }
+
+    @Test
+    public void lazyDataNamedWhenDescribed() throws Exception {
+        Named.named.clear();
+        LambdataRunner runner = new LambdataRunner(ParameterizedTestNamedLazily.class);
+        runner.getDescription();
+        // lazily sourced data are named as they are read, as they are not held in memory
+        assertEquals(100, Named.named.stream().filter(name -> name.startsWith("n")).count());
+    }
+
+    @Test
+    public void runsNamedBeforeDescribed() throws Exception {
+        List<FrameworkMethod> methods = new LambdataRunner(ParameterizedTestNamedLazily.class).computeTestMethods();
+        // the name of a run is the display name of its description, created on demand
+        String suffix = "(" + ParameterizedTestNamedLazily.class.getName() + ")";
+        assertEquals("testNamed: n0" + suffix, methods.get(0).getName());
+        assertEquals("testNamedBatched [1..10]", methods.get(100).getName());
+    }
+
+    @RunWith(LambdataRunner.class)
+    public static class ParameterizedTestDeferred {
+        static final AtomicInteger calls = new AtomicInteger();
+        static final Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+        @Test public TestSpecs testFirst() {
+            calls.incrementAndGet();
+            threads.add(Thread.currentThread());
+            return specs((Integer i) -> assertTrue(i > 0), datum(1), datum(2));
+        }
+
+        @Test public TestSpecs testSecond() {
+            calls.incrementAndGet();
+            threads.add(Thread.currentThread());
+            return specs((Integer i) -> assertTrue(i > 0), () -> IntStream.range(1, 10).mapToObj(i -> datum(i)));
+        }
+
+        @Test public TestSpecs testThird() {
+            calls.incrementAndGet();
+            threads.add(Thread.currentThread());
+            return specs((String s) -> assertFalse(s.isEmpty()), datum("a"));
+        }
+    }
+
+    @Test
+    public void specMethodsCalledOnDemand() throws Exception {
+        ParameterizedTestDeferred.calls.set(0);
+        ParameterizedTestDeferred.threads.clear();
+        LambdataRunner runner = new LambdataRunner(ParameterizedTestDeferred.class);
+        assertEquals(0, ParameterizedTestDeferred.calls.get());
+        assertEquals(12, runner.getDescription().testCount());
+        assertEquals(3, ParameterizedTestDeferred.calls.get());
+        // only the spec methods of parallel classes are called concurrently
+        assertEquals(Collections.singleton(Thread.currentThread()), ParameterizedTestDeferred.threads);
+        // described in the usual order of test methods, whichever spec method returned first
+        assertEquals(
+            new TestClass(ParameterizedTestDeferred.class).getAnnotatedMethods(Test.class).stream()
+                .map(FrameworkMethod::getName).collect(Collectors.toList()),
+            runner.getDescription().getChildren().stream().map(Description::getDisplayName).collect(Collectors.toList()));
+
+        ParameterizedTestDeferred.calls.set(0);
+        runner = new LambdataRunner(ParameterizedTestDeferred.class);
+        runner.filter(DatumFilter.select("testThird"));
+        assertTrue(new JUnitCore().run(Request.runner(runner)).wasSuccessful());
+        assertEquals(1, ParameterizedTestDeferred.calls.get());
+    }
+
+    @RunWith(LambdataRunner.class)
+    public static class ParameterizedTestNonPublicSpecs {
+        static final AtomicInteger calls = new AtomicInteger();
+
+        @Test TestSpecs testHidden() {
+            calls.incrementAndGet();
+            return specs((Integer i) -> {}, datum(1));
+        }
+    }
+
+    @Test
+    public void specMethodsValidatedBySignature() throws Exception {
+        ParameterizedTestNonPublicSpecs.calls.set(0);
+        try {
+            new LambdataRunner(ParameterizedTestNonPublicSpecs.class);
+            fail();
+        }
+        catch (InitializationError e) {
+            assertEquals(1, e.getCauses().size());
+        }
+        assertEquals(0, ParameterizedTestNonPublicSpecs.calls.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void malformedDatumFilter() {
+        DatumFilter.select("testSelected[1..]");
+    }
+
+    @Test
+    public void selectionSetting() throws Exception {
+        ParameterizedTestSelected.run.clear();
+        System.setProperty("lambdata.select", "testSelected[0]; " + ParameterizedTestSelected.class.getName() + "#testSelected[3]");
+        try {
+            assertEquals(
+                Arrays.asList("testSelected: a(" + ParameterizedTestSelected.class.getName() + ")",
+                    "testSelected: c(" + ParameterizedTestSelected.class.getName() + ")"),
+                startedTests(ParameterizedTestSelected.class));
+        }
+        finally {
+            System.clearProperty("lambdata.select");
+        }
+        assertEquals(Arrays.asList(0, 3), ParameterizedTestSelected.run);
+    }
+
+    @RunWith(LambdataRunner.class)
+    public static class ParameterizedTestHistory {
+        static int size;
+        static int failing;
+
+        @Test public TestSpecs testHistory() {
+            return specs((Integer i) -> assertNotEquals(failing, (int) i),
+                IntStream.range(0, size).mapToObj(Lambdata::datum).collect(Collectors.toList()));
+        }
+
+        @Test public void testPlain() {}
+    }
+
+    @RunWith(LambdataRunner.class)
+    public static class ParameterizedTestHistoryOrder {
+        static boolean failing;
+
+        @Test public TestSpecs testSlowFailure() {
+            // the failure of the first datum is the slower one
+            return specs((Integer sleep) -> {
+                    Thread.sleep(sleep);
+                    assertFalse(failing && sleep != 1);
+                },
+                datum(50), datum(1), datum(0));
+        }
+
+        @Test public void testPlain() {}
+    }
+
+    @Test
+    public void historyKeepsDeclarationOrderWithinMethod() throws Exception {
+        Class<ParameterizedTestHistoryOrder> testClass = ParameterizedTestHistoryOrder.class;
+        System.setProperty("lambdata.history", temporaryFolder.getRoot().toString());
+        try {
+            ParameterizedTestHistoryOrder.failing = true;
+            assertEquals(2, new JUnitCore().run(testClass).getFailureCount());
+
+            ParameterizedTestHistoryOrder.failing = false;
+            List<String> started = startedTests(testClass).stream()
+                .map(name -> name.substring(0, name.indexOf('(')))
+                .collect(Collectors.toList());
+            assertEquals(
+                Arrays.asList("testSlowFailure: 1", "testSlowFailure: 3", "testSlowFailure: 2", "testPlain"), started);
+        }
+        finally {
+            System.clearProperty("lambdata.history");
+        }
+    }
+
+    @Test
+    public void historyOrdersRecentFailuresFirst() throws Exception {
+        Class<ParameterizedTestHistory> testClass = ParameterizedTestHistory.class;
+        System.setProperty("lambdata.history", temporaryFolder.getRoot().toString());
+        try {
+            ParameterizedTestHistory.size = 4;
+            ParameterizedTestHistory.failing = 2;
+            assertEquals(1, new JUnitCore().run(testClass).getFailureCount());
+            assertTrue(Files.exists(temporaryFolder.getRoot().toPath().resolve(testClass.getName() + ".history")));
+
+            ParameterizedTestHistory.size = 5;
+            ParameterizedTestHistory.failing = -1;
+            List<String> started = startedTests(testClass).stream()
+                .map(name -> name.substring(0, name.indexOf('(')))
+                .collect(Collectors.toList());
+            // the recent failure, then the new datum, then the rest
+            assertEquals(Arrays.asList("testHistory: 3", "testHistory: 5"), started.subList(0, 2));
+            assertEquals(
+                Arrays.asList("testHistory: 1", "testHistory: 2", "testHistory: 4"),
+                started.stream().filter(name -> name.startsWith("testHistory")).skip(2).collect(Collectors.toList()));
+            assertEquals(6, started.size());
+        }
+        finally {
+            System.clearProperty("lambdata.history");
+        }
+    }
+
+    @RunWith(LambdataRunner.class)
+    public static class ParameterizedTestIncremental {
+        static final List<Integer> run = new ArrayList<>();
+        static int size;
+        static int failing;
+        static int befores = 0;
+
+        @Before public void before() { befores++; }
+
+        @Incremental(Lambdata.class)
+        @Test public TestSpecs testIncremental() {
+            return specs((Integer i) -> {
+                    run.add(i);
+                    assertNotEquals(failing, (int) i);
+                },
+                () -> IntStream.range(0, size).mapToObj(Lambdata::datum));
+        }
+
+        @Test public TestSpecs testNotIncremental() {
+            return specs((Integer i) -> run.add(-i - 1), datum(0));
+        }
+    }
+
+    @Test
+    public void incrementalSkipsUnchangedPassingData() throws Exception {
+        Class<ParameterizedTestIncremental> testClass = ParameterizedTestIncremental.class;
+        System.setProperty("lambdata.incremental", temporaryFolder.getRoot().toString());
+        try {
+            ParameterizedTestIncremental.size = 4;
+            ParameterizedTestIncremental.failing = 2;
+            ParameterizedTestIncremental.run.clear();
+            assertEquals(1, new JUnitCore().run(testClass).getFailureCount());
+            assertTrue(Files.exists(temporaryFolder.getRoot().toPath().resolve(testClass.getName() + ".incremental")));
+            assertEquals(5, ParameterizedTestIncremental.run.size());
+
+            // only the failure, the new datum and the method which is not incremental are run again
+            ParameterizedTestIncremental.size = 5;
+            ParameterizedTestIncremental.failing = -1;
+            ParameterizedTestIncremental.run.clear();
+            ParameterizedTestIncremental.befores = 0;
+            AtomicInteger skipped = new AtomicInteger();
+            JUnitCore jUnitCore = new JUnitCore();
+            jUnitCore.addListener(new RunListener() {
+                @Override
+                public void testAssumptionFailure(Failure failure) {
+                    skipped.incrementAndGet();
+                }
+            });
+            assertTrue(jUnitCore.run(testClass).wasSuccessful());
+            assertEquals(Arrays.asList(-1, 2, 4), ParameterizedTestIncremental.run.stream().sorted().collect(Collectors.toList()));
+            assertEquals(3, skipped.get());
+            assertEquals(3, ParameterizedTestIncremental.befores);
+
+            ParameterizedTestIncremental.run.clear();
+            assertTrue(new JUnitCore().run(testClass).wasSuccessful());
+            assertEquals(Collections.singletonList(-1), ParameterizedTestIncremental.run);
+        }
+        finally {
+            System.clearProperty("lambdata.incremental");
+        }
+    }
+
+    @RunWith(LambdataRunner.class)
+    public static class ParameterizedTestFailFast {
+        static final List<Integer> run = new ArrayList<>();
+        static int befores = 0;
+
+        @Before public void before() { befores++; }
+
+        @FailFast(maxFailures = 3)
+        @Test public TestSpecs testFailFast() {
+            return specs((Integer i) -> {
+                    run.add(i);
+                    fail();
+                },
+                IntStream.range(0, 10).mapToObj(Lambdata::datum).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void failFast() throws Exception {
+        ParameterizedTestFailFast.run.clear();
+        ParameterizedTestFailFast.befores = 0;
+        AtomicInteger skipped = new AtomicInteger();
+        JUnitCore jUnitCore = new JUnitCore();
+        jUnitCore.addListener(new RunListener() {
+            @Override
+            public void testAssumptionFailure(Failure failure) {
+                skipped.incrementAndGet();
+            }
+        });
+        Result result = jUnitCore.run(ParameterizedTestFailFast.class);
+        assertEquals(10, result.getRunCount());
+        assertEquals(3, result.getFailureCount());
+        assertEquals(7, skipped.get());
+        assertEquals(Arrays.asList(0, 1, 2), ParameterizedTestFailFast.run);
+        assertEquals(3, ParameterizedTestFailFast.befores);
+    }
+
+    @RunWith(LambdataRunner.class)
+    @FailFast(maxFailures = 2)
+    public static class ParameterizedTestFailFastBatched {
+        static final List<Integer> run = new ArrayList<>();
+
+        @Batched(size = 4)
+        @Test public TestSpecs testFailFastBatched() {
+            return specs((Integer i) -> {
+                    run.add(i);
+                    assertTrue(i % 3 != 0);
+                },
+                IntStream.range(0, 12).mapToObj(Lambdata::datum).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void failFastBatched() throws Exception {
+        ParameterizedTestFailFastBatched.run.clear();
+        Result result = new JUnitCore().run(ParameterizedTestFailFastBatched.class);
+        assertEquals(12, result.getRunCount());
+        assertEquals(2, result.getFailureCount());
+        assertEquals(Arrays.asList(0, 1, 2, 3), ParameterizedTestFailFastBatched.run);
+    }
+
+    @RunWith(LambdataRunner.class)
+    @DatumTimeout(100)
+    public static class ParameterizedTestDatumTimeout {
+        static final Set<Thread> threads = Collections.synchronizedSet(new HashSet<>());
+        static boolean interruptedAfter;
+
+        @After public void after() { interruptedAfter |= Thread.currentThread().isInterrupted(); }
+
+        @Test public TestSpecs testDatumTimeout() {
+            return specs((Long millis) -> {
+                    threads.add(Thread.currentThread());
+                    Thread.sleep(millis);
+                },
+                datum(1L), datum(60_000L), datum(2L));
+        }
+
+        @Batched(size = 3)
+        @Test public TestSpecs testDatumTimeoutBatched() {
+            return specs((Long millis) -> {
+                    threads.add(Thread.currentThread());
+                    Thread.sleep(millis);
+                },
+                datum(60_000L), datum(1L), datum(2L));
+        }
+    }
+
+    @Test
+    public void datumTimeout() throws Exception {
+        ParameterizedTestDatumTimeout.threads.clear();
+        ParameterizedTestDatumTimeout.interruptedAfter = false;
+        long start = System.nanoTime();
+        Result result = new JUnitCore().run(ParameterizedTestDatumTimeout.class);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(30));
+        assertEquals(6, result.getRunCount());
+        assertEquals(
+            Arrays.asList("testDatumTimeout: 2", "testDatumTimeoutBatched: 1"),
+            result.getFailures().stream()
+                .map(failure -> failure.getDescription().getMethodName())
+                .sorted()
+                .collect(Collectors.toList()));
+        for (Failure failure: result.getFailures()) {
+            assertEquals("test timed out after 100 milliseconds", failure.getMessage());
+            assertTrue(Arrays.stream(failure.getException().getStackTrace())
+                .anyMatch(element -> element.getMethodName().equals("sleep")));
+        }
+        // data run on the runner's own thread, and interrupts do not leak into afters or later data
+        assertEquals(Collections.singleton(Thread.currentThread()), ParameterizedTestDatumTimeout.threads);
+        assertFalse(ParameterizedTestDatumTimeout.interruptedAfter);
+    }
+
+    @RunWith(LambdataRunner.class)
+    public static class ParameterizedTestAsync {
+        static final AtomicInteger inProgress = new AtomicInteger();
+        static final AtomicInteger maxInProgress = new AtomicInteger();
+
+        @Batched(size = 20, inFlight = 5)
+        @Test public TestSpecs testAsync() {
+            return asyncSpecs((Integer i) -> {
+                    maxInProgress.accumulateAndGet(inProgress.incrementAndGet(), Math::max);
+                    Thread.sleep(20);
+                    inProgress.decrementAndGet();
+                    return i == 7 ? failedFuture(new AssertionError("failed " + i)) : CompletableFuture.completedFuture(i);
+                },
+                () -> IntStream.range(0, 40).mapToObj(Lambdata::datum));
+        }
+
+        @Test public TestSpecs testAsyncUnbatched() {
+            return asyncSpecs((Integer i) -> i == 1 ? failedFuture(new AssertionError("failed " + i)) : null,
+                datum(0), datum(1));
+        }
+
+        private static CompletableFuture<Object> failedFuture(Throwable e) {
+            CompletableFuture<Object> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    @Test
+    public void asyncDataInFlight() throws Exception {
+        ParameterizedTestAsync.maxInProgress.set(0);
+        List<String> started = new ArrayList<>();
+        JUnitCore jUnitCore = new JUnitCore();
+        jUnitCore.addListener(new RunListener() {
+            @Override
+            public void testStarted(Description description) {
+                started.add(description.getMethodName());
+            }
+        });
+        Result result = jUnitCore.run(ParameterizedTestAsync.class);
+        assertEquals(42, result.getRunCount());
+        assertEquals(
+            Arrays.asList("testAsync: 8", "testAsyncUnbatched: 2"),
+            result.getFailures().stream()
+                .map(failure -> failure.getDescription().getMethodName())
+                .sorted()
+                .collect(Collectors.toList()));
+        assertTrue(result.getFailures().stream().allMatch(failure -> failure.getException() instanceof AssertionError));
+        // results are reported in order, while up to five data are in progress at once
+        assertEquals(
+            IntStream.rangeClosed(1, 40).mapToObj(i -> "testAsync: " + i).collect(Collectors.toList()),
+            started.stream().filter(name -> name.startsWith("testAsync: ")).collect(Collectors.toList()));
+        assertTrue(ParameterizedTestAsync.maxInProgress.get() > 1);
+        assertTrue(ParameterizedTestAsync.maxInProgress.get() <= 5);
+    }
+
+    @RunWith(LambdataRunner.class)
+    @FailFast(maxFailures = 1)
+    public static class ParameterizedTestAsyncFailFast {
+        static final List<CompletableFuture<Object>> pending = Collections.synchronizedList(new ArrayList<>());
+        static CountDownLatch started;
+
+        @Batched(size = 5, inFlight = 3)
+        @Test public TestSpecs testAsyncFailFast() {
+            return asyncSpecs((Integer i) -> {
+                    if (i == 0) {
+                        // fail only once the data following are in flight
+                        started.await(10, TimeUnit.SECONDS);
+                        throw new AssertionError("failed " + i);
+                    }
+                    CompletableFuture<Object> future = new CompletableFuture<>();
+                    pending.add(future);
+                    started.countDown();
+                    return future;
+                },
+                IntStream.range(0, 5).mapToObj(Lambdata::datum).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void skippedAsyncDataCancelled() throws Exception {
+        ParameterizedTestAsyncFailFast.pending.clear();
+        ParameterizedTestAsyncFailFast.started = new CountDownLatch(2);
+        Result result = new JUnitCore().run(ParameterizedTestAsyncFailFast.class);
+        assertEquals(5, result.getRunCount());
+        assertEquals(1, result.getFailureCount());
+        assertEquals(2, ParameterizedTestAsyncFailFast.pending.size());
+        // a datum cancelled while it was starting cancels its future as soon as it has started
+        CompletableFuture.allOf(ParameterizedTestAsyncFailFast.pending.toArray(new CompletableFuture<?>[0]))
+            .handle((value, e) -> null)
+            .get(10, TimeUnit.SECONDS);
+        assertTrue(ParameterizedTestAsyncFailFast.pending.stream().allMatch(CompletableFuture::isCancelled));
+    }
+
+    @RunWith(LambdataRunner.class)
+    public static class ParameterizedTestAsyncLookupFailure {
+        static final AtomicInteger sourced = new AtomicInteger();
+        static CountDownLatch started;
+        static final AtomicInteger together = new AtomicInteger();
+
+        @Batched(size = 5, inFlight = 3)
+        @Test public TestSpecs testAsyncLookupFailure() {
+            return asyncSpecs((Integer i) -> {
+                    if (i > 1) {
+                        started.countDown();
+                        if (started.await(1, TimeUnit.SECONDS)) {
+                            together.incrementAndGet();
+                        }
+                    }
+                    return null;
+                },
+                () -> {
+                    // the source fails on the second datum once, when it is first read to run the data
+                    boolean failing = sourced.getAndIncrement() == 1;
+                    return IntStream.range(0, 5).mapToObj(i -> {
+                        if (i == 1 && failing) {
+                            throw new IllegalStateException("unavailable");
+                        }
+                        return datum(i);
+                    });
+                });
+        }
+    }
+
+    @Test
+    public void asyncLookupFailureReadsAhead() throws Exception {
+        ParameterizedTestAsyncLookupFailure.sourced.set(0);
+        ParameterizedTestAsyncLookupFailure.started = new CountDownLatch(3);
+        ParameterizedTestAsyncLookupFailure.together.set(0);
+        Result result = new JUnitCore().run(ParameterizedTestAsyncLookupFailure.class);
+        assertEquals(5, result.getRunCount());
+        assertEquals(1, result.getFailureCount());
+        assertEquals("testAsyncLookupFailure: 2", result.getFailures().get(0).getDescription().getMethodName());
+        assertEquals("unavailable", result.getFailures().get(0).getMessage());
+        // the data following the failed lookup are still started ahead of time
+        assertEquals(3, ParameterizedTestAsyncLookupFailure.together.get());
+    }
+
+    @Test
+    public void heapReport() throws Exception {
+        Path reportDirectory = temporaryFolder.getRoot().toPath();
+        System.setProperty("lambdata.heap", reportDirectory.toString());
+        try {
+            assertTrue(new JUnitCore().run(ParameterizedTestLargeData.class).wasSuccessful());
+        }
+        finally {
+            System.clearProperty("lambdata.heap");
+        }
+        String report = new String(Files.readAllBytes(
+            reportDirectory.resolve(ParameterizedTestLargeData.class.getName() + ".heap.json")), StandardCharsets.UTF_8);
+        assertTrue(report, report.matches(".*\"peakUsedBytes\":[1-9][0-9]*,\"usedAfterGcBytes\":[0-9]+}"));
+    }
+
+    @RunWith(LambdataRunner.class)
+    public static class ParameterizedTestLargeData {
+        @Test public TestSpecs testLargeData() {
+            return specs((byte[] bytes) -> assertEquals(1 << 20, bytes.length),
+                IntStream.range(0, 8).mapToObj(i -> datum(new byte[1 << 20])).collect(Collectors.toList()));
+        }
+    }
+
+    @RunWith(LambdataRunner.class)
+    public static class ParameterizedTestResults {
+        @Test
+        @DescribeAs("{0} < {1}")
+        public TestSpecs testResults() {
+            return specs((Integer a, Integer b) -> assertTrue(a < b),
+                datum(1, 2), datum(3, 2), datum(4, 5));
+        }
+
+        @Test public void testPlain() {}
+    }
+
+    @Test
+    public void resultsStreamedAsJsonLines() throws Exception {
+        Path resultsDirectory = temporaryFolder.getRoot().toPath();
+        System.setProperty("lambdata.results", resultsDirectory.toString());
+        try {
+            assertEquals(1, new JUnitCore().run(ParameterizedTestResults.class).getFailureCount());
+        }
+        finally {
+            System.clearProperty("lambdata.results");
+        }
+        List<String> lines = Files.readAllLines(
+            resultsDirectory.resolve(ParameterizedTestResults.class.getName() + ".results.jsonl"), StandardCharsets.UTF_8);
+        assertEquals(4, lines.size());
+        String prefix = "{\"class\":\"" + ParameterizedTestResults.class.getName() + "\",";
+        assertEquals(1, lines.stream()
+            .filter(line -> line.startsWith(prefix + "\"method\":\"testResults\",\"index\":1,\"name\":\"testResults: 3 < 2\",\"status\":\"failed\","))
+            .filter(line -> line.contains("\"failure\":{\"type\":\"java.lang.AssertionError\""))
+            .count());
+        assertEquals(1, lines.stream()
+            .filter(line -> line.startsWith(prefix + "\"method\":\"testResults\",\"index\":2,\"name\":\"testResults: 4 < 5\",\"status\":\"passed\","))
+            .count());
+        assertEquals(1, lines.stream()
+            .filter(line -> line.startsWith(prefix + "\"method\":\"testPlain\",\"name\":\"testPlain\",\"status\":\"passed\","))
+            .count());
+    }
+
+    @Test
+    public void resultsStreamedAsCompressedXml() throws Exception {
+        Path resultsDirectory = temporaryFolder.getRoot().toPath();
+        System.setProperty("lambdata.results", resultsDirectory.toString());
+        System.setProperty("lambdata.results.format", "xml");
+        System.setProperty("lambdata.results.compress", "true");
+        try {
+            assertEquals(1, new JUnitCore().run(ParameterizedTestResults.class).getFailureCount());
+        }
+        finally {
+            System.clearProperty("lambdata.results");
+            System.clearProperty("lambdata.results.format");
+            System.clearProperty("lambdata.results.compress");
+        }
+        Path file = resultsDirectory.resolve("TEST-" + ParameterizedTestResults.class.getName() + ".xml.gz");
+        String xml;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                bytes.write(buffer, 0, read);
+            }
+            xml = new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+        assertTrue(xml, xml.startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<testsuite name=\""
+            + ParameterizedTestResults.class.getName() + "\">\n"));
+        assertTrue(xml, xml.endsWith("</testsuite>\n"));
+        assertTrue(xml, xml.contains("name=\"testResults: 3 &lt; 2\""));
+        assertTrue(xml, xml.contains("<property name=\"lambdata.index\" value=\"1\"/>"));
+        assertTrue(xml, xml.contains("<failure type=\"java.lang.AssertionError\">"));
+        assertEquals(4, xml.split("<testcase ", -1).length - 1);
+    }
+
+    @RunWith(LambdataRunner.class)
+    public static class ParameterizedTestMicrobenchmark {
+        static final AtomicInteger runs = new AtomicInteger();
+
+        @Test
+        @Microbenchmark(warmupIterations = 1, iterations = 3, time = 5)
+        public TestSpecs testMicrobenchmark() {
+            return specs((String text, Integer length) -> {
+                    runs.incrementAndGet();
+                    Blackhole.consume(text.hashCode());
+                    assertEquals((int) length, text.length());
+                },
+                datum("a", 1), datum("abc", 3));
+        }
+    }
+
+    @Test
+    public void microbenchmarksOnlyWhenRequested() throws Exception {
+        ParameterizedTestMicrobenchmark.runs.set(0);
+        assertTrue(new JUnitCore().run(ParameterizedTestMicrobenchmark.class).wasSuccessful());
+        assertEquals(2, ParameterizedTestMicrobenchmark.runs.get());
+
+        Path reportDirectory = temporaryFolder.getRoot().toPath();
+        System.setProperty("lambdata.benchmarks", reportDirectory.toString());
+        try {
+            ParameterizedTestMicrobenchmark.runs.set(0);
+            assertTrue(new JUnitCore().run(ParameterizedTestMicrobenchmark.class).wasSuccessful());
+            assertTrue(ParameterizedTestMicrobenchmark.runs.get() > 8);
+        }
+        finally {
+            System.clearProperty("lambdata.benchmarks");
+        }
+        String report = new String(Files.readAllBytes(reportDirectory.resolve(
+            ParameterizedTestMicrobenchmark.class.getName() + ".benchmarks.json")), StandardCharsets.UTF_8);
+        assertTrue(report, report.contains(
+            "{\"method\":\"testMicrobenchmark\",\"index\":1,\"name\":\"testMicrobenchmark: 2\","
+                + "\"warmupIterations\":1,\"iterations\":3,\"operations\":"));
+        assertEquals(report, 2, report.split("\"opsPerSecond\":[1-9]", -1).length - 1);
+        assertEquals(report, 2, report.split("\"p999Nanos\":[0-9]+,\"maxNanos\":[1-9]", -1).length - 1);
+    }
+
+    @RunWith(LambdataRunner.class)
+    public static class ParameterizedTestLatencyBudget {
+        static long budgetedNanos;
+        static final AtomicInteger runs = new AtomicInteger();
+
+        @Test
+        @LatencyBudget(warmups = 2, samples = 20, data = 1)
+        public TestSpecs testLatencyBudget() {
+            return specs((Long nanos) -> {
+                    runs.incrementAndGet();
+                    long end = System.nanoTime() + (nanos < 0 ? budgetedNanos : nanos);
+                    while (System.nanoTime() < end) {
+                        Thread.yield();
+                    }
+                },
+                datum(0L), datum(-1L));
+        }
+    }
+
+    @Test
+    public void latencyBudgetComparedWithBaseline() throws Exception {
+        Class<ParameterizedTestLatencyBudget> testClass = ParameterizedTestLatencyBudget.class;
+        Path baselineDirectory = temporaryFolder.getRoot().toPath();
+        System.setProperty("lambdata.baseline", baselineDirectory.toString());
+        try {
+            ParameterizedTestLatencyBudget.budgetedNanos = 100000;
+            ParameterizedTestLatencyBudget.runs.set(0);
+            assertTrue(new JUnitCore().run(testClass).wasSuccessful());
+            // only the budgeted datum is timed
+            assertEquals(1 + 22, ParameterizedTestLatencyBudget.runs.get());
+            List<String> lines = Files.readAllLines(baselineDirectory.resolve(testClass.getName() + ".baseline"));
+            assertEquals(2, lines.size());
+            assertTrue(lines.get(1), lines.get(1).matches(
+                Pattern.quote(testClass.getName() + "#testLatencyBudget{") + "[0-9a-f]{64}\\}\t[0-9,]+"));
+
+            ParameterizedTestLatencyBudget.budgetedNanos = 2000000;
+            Result result = new JUnitCore().run(testClass);
+            assertEquals(1, result.getFailureCount());
+            Failure failure = result.getFailures().get(0);
+            assertEquals("testLatencyBudget: 2", failure.getDescription().getMethodName());
+            assertTrue(failure.getMessage(), failure.getMessage().startsWith("Slower than its baseline by more than 10%"));
+            assertTrue(failure.getMessage(), failure.getMessage().contains("measured: n = 20, min = "));
+            assertTrue(failure.getMessage(), failure.getMessage().contains("baseline: n = 20, min = "));
+
+            System.setProperty("lambdata.baseline.update", "true");
+            assertTrue(new JUnitCore().run(testClass).wasSuccessful());
+            System.clearProperty("lambdata.baseline.update");
+            assertTrue(new JUnitCore().run(testClass).wasSuccessful());
+        }
+        finally {
+            System.clearProperty("lambdata.baseline");
+            System.clearProperty("lambdata.baseline.update");
+        }
+    }
+
+    @RunWith(LambdataRunner.class)
+    public static class ParameterizedTestLatencyRows {
+        static List<Long> table;
+
+        @Test
+        @LatencyBudget(warmups = 2, samples = 20)
+        public TestSpecs testLatencyRows() {
+            return specs((Long nanos) -> {
+                    long end = System.nanoTime() + nanos;
+                    while (System.nanoTime() < end) {
+                        Thread.yield();
+                    }
+                },
+                table.stream().map(Lambdata::datum).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void latencyBaselineKeptByValues() throws Exception {
+        Class<ParameterizedTestLatencyRows> testClass = ParameterizedTestLatencyRows.class;
+        Path baselineDirectory = temporaryFolder.getRoot().toPath();
+        System.setProperty("lambdata.baseline", baselineDirectory.toString());
+        try {
+            ParameterizedTestLatencyRows.table = Arrays.asList(100000L, 2000000L);
+            assertTrue(new JUnitCore().run(testClass).wasSuccessful());
+            Path file = baselineDirectory.resolve(testClass.getName() + ".baseline");
+            List<String> lines = Files.readAllLines(file);
+            assertEquals(3, lines.size());
+
+            // the slow datum is now the first, but is still compared with its own baseline
+            ParameterizedTestLatencyRows.table = Arrays.asList(2000000L);
+            Result result = new JUnitCore().run(testClass);
+            assertTrue(result.getFailures().toString(), result.wasSuccessful());
+            assertEquals(lines, Files.readAllLines(file));
+        }
+        finally {
+            System.clearProperty("lambdata.baseline");
+        }
+    }
+
+    @RunWith(LambdataRunner.class)
+    public static class ParameterizedTestAllocations {
+        static volatile Object escaped;
+
+        @Test
+        @AllocationBudget(1 << 16)
+        @DescribeAs("{0,number,#} bytes")
+        public TestSpecs testAllocations() {
+            return specs((Integer bytes) -> { escaped = new byte[bytes]; }, datum(1000), datum(1 << 20), datum(10));
+        }
+    }
+
+    @Test
+    public void allocationsMeasuredAndBudgeted() throws Exception {
+        Path reportDirectory = temporaryFolder.getRoot().toPath();
+        System.setProperty("lambdata.allocations", reportDirectory.toString());
+        Result result;
+        try {
+            result = new JUnitCore().run(ParameterizedTestAllocations.class);
+        }
+        finally {
+            System.clearProperty("lambdata.allocations");
+        }
+        assertEquals(1, result.getFailureCount());
+        Failure failure = result.getFailures().get(0);
+        assertEquals("testAllocations: 1048576 bytes", failure.getDescription().getMethodName());
+        assertTrue(failure.getMessage(), failure.getMessage().matches("Allocated [0-9]+ bytes, over the budget of 65536 bytes"));
+        String report = new String(Files.readAllBytes(reportDirectory.resolve(
+            ParameterizedTestAllocations.class.getName() + ".allocations.json")), StandardCharsets.UTF_8);
+        assertTrue(report, report.contains(
+            "\"largest\":[{\"method\":\"testAllocations\",\"index\":1,\"name\":\"testAllocations: 1048576 bytes\",\"bytes\":"));
+    }
+
+    @RunWith(LambdataRunner.class)
+    public static class ParameterizedTestRules {
+        static final AtomicInteger resolved = new AtomicInteger();
+        static final List<String> testNames = Collections.synchronizedList(new ArrayList<>());
+        static final List<String> methodNames = Collections.synchronizedList(new ArrayList<>());
+
+        @Rule public TestName testName = new TestName();
+
+        @Rule public MethodRule methodRule = (base, method, target) -> {
+            methodNames.add(method.getName());
+            return base;
+        };
+
+        @Rule
+        public TestRule resolvedRule() {
+            resolved.incrementAndGet();
+            return (base, description) -> base;
+        }
+
+        @Before
+        public void before() {
+            testNames.add(testName.getMethodName());
+        }
+
+        @Test public TestSpecs testRules() {
+            return specs((Integer i) -> assertTrue(i > 0), datum(1), datum(2), datum(3));
+        }
+
+        @Test
+        @Batched(size = 2)
+        public TestSpecs testRulesBatched() {
+            return specs((Integer i) -> assertTrue(i > 0), datum(1), datum(2), datum(3));
+        }
+
+        @Test public void testPlain() {}
+    }
+
+    @Test
+    public void rulesResolvedOncePerMethod() throws Exception {
+        ParameterizedTestRules.resolved.set(0);
+        ParameterizedTestRules.testNames.clear();
+        ParameterizedTestRules.methodNames.clear();
+        Result result = new JUnitCore().run(ParameterizedTestRules.class);
+        assertTrue(result.getFailures().toString(), result.wasSuccessful());
+        assertEquals(7, result.getRunCount());
+        // once for each parameterized method, and once for the plain test
+        assertEquals(3, ParameterizedTestRules.resolved.get());
+        assertTrue(ParameterizedTestRules.testNames.toString(), ParameterizedTestRules.testNames.containsAll(
+            Arrays.asList("testRules: 1", "testRules: 2", "testRules: 3", "testPlain")));
+        assertEquals(6, ParameterizedTestRules.testNames.size());
+        // method rules are given each run, or batch, rather than the run they were resolved for
+        assertEquals(
+            new HashSet<>(Arrays.asList("testRules: 1(" + ParameterizedTestRules.class.getName() + ")",
+                "testRules: 2(" + ParameterizedTestRules.class.getName() + ")",
+                "testRules: 3(" + ParameterizedTestRules.class.getName() + ")",
+                "testRulesBatched [1..2]", "testRulesBatched [3..3]", "testPlain")),
+            new HashSet<>(ParameterizedTestRules.methodNames));
+    }
+
+    public static class HookedRunner extends LambdataRunner {
+        static final List<String> hooked = Collections.synchronizedList(new ArrayList<>());
+
+        public HookedRunner(Class<?> klass) throws InitializationError {
+            super(klass);
+        }
+
+        @Override
+        protected Statement withBefores(FrameworkMethod method, Object target, Statement statement) {
+            hooked.add("before " + method.getName());
+            return super.withBefores(method, target, statement);
+        }
+
+        @Override
+        protected Statement withAfters(FrameworkMethod method, Object target, Statement statement) {
+            hooked.add("after " + method.getName());
+            return super.withAfters(method, target, statement);
+        }
+    }
+
+    @RunWith(HookedRunner.class)
+    public static class ParameterizedTestHooks {
+        static int befores;
+
+        @Before public void before() { befores++; }
+
+        @Test public TestSpecs testHooks() {
+            return specs((Integer i) -> assertTrue(i > 0), datum(1), datum(2));
+        }
+
+        @Test
+        @Batched(size = 2)
+        public TestSpecs testHooksBatched() {
+            return specs((Integer i) -> assertTrue(i > 0), datum(1), datum(2));
+        }
+    }
+
+    @Test
+    public void overriddenHooksCalledForEachRun() throws Exception {
+        HookedRunner.hooked.clear();
+        ParameterizedTestHooks.befores = 0;
+        Result result = new JUnitCore().run(ParameterizedTestHooks.class);
+        assertTrue(result.getFailures().toString(), result.wasSuccessful());
+        assertEquals(4, result.getRunCount());
+        assertEquals(3, ParameterizedTestHooks.befores);
+        String suffix = "(" + ParameterizedTestHooks.class.getName() + ")";
+        assertEquals(
+            new HashSet<>(Arrays.asList("before testHooks: 1" + suffix, "after testHooks: 1" + suffix,
+                "before testHooks: 2" + suffix, "after testHooks: 2" + suffix, "before testHooksBatched [1..2]",
+                "after testHooksBatched [1..2]")),
+            new HashSet<>(HookedRunner.hooked));
+        assertEquals(6, HookedRunner.hooked.size());
+    }
+
+    private List<String> startedTests(Class<?> testClass) {
+        List<String> started = new ArrayList<>();
+        JUnitCore jUnitCore = new JUnitCore();
+        jUnitCore.addListener(new RunListener() {
+            @Override
+            public void testStarted(Description description) {
+                started.add(description.getDisplayName());
+            }
+        });
+        assertTrue(jUnitCore.run(testClass).wasSuccessful());
+        return started;
+    }
+
     private MemoizingRunListener runTests(Class<?> testClass) throws Exception {
         MemoizingRunListener runListener = new MemoizingRunListener();
         JUnitCore jUnitCore = new JUnitCore();
@@ -1,7 +1,15 @@
 package org.lambdatarunner;
 
 import static org.junit.Assert.assertEquals;
+import static org.lambdatarunner.Lambdata.allCombinations;
 import static org.lambdatarunner.Lambdata.datum;
+import static org.lambdatarunner.Lambdata.doubleDatum;
+import static org.lambdatarunner.Lambdata.doubleSpecs;
+import static org.lambdatarunner.Lambdata.intDatum;
+import static org.lambdatarunner.Lambdata.intSpecs;
+import static org.lambdatarunner.Lambdata.longDatum;
+import static org.lambdatarunner.Lambdata.longSpecs;
+import static org.lambdatarunner.Lambdata.pairwise;
 import static org.lambdatarunner.Lambdata.specs;
 
 import org.junit.Ignore;
@@ -9,6 +17,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import java.util.Arrays;
+import java.util.stream.IntStream;
 
 /**
  * Tests to be used to see how LambdataRunner interacts with various test runners.
@@ -127,4 +136,57 @@ public class LambdataTest {
                         datum("flexible", 1, 4, "lex"),
                         datum("hello", 5, 5, "")));
     }
+
+    @Test
+    @DescribeAs("{0} squared")
+    public TestSpecs testLazyData() {
+        return specs(
+            (i, square) -> assertEquals((long) square, (long) i * i),
+            () -> IntStream.range(0, 100).mapToObj(i -> datum(i, i * i)));
+    }
+
+    @Test
+    @DescribeAs("{0} + {1}")
+    public TestSpecs testPrimitiveAddition() {
+        return intSpecs(
+            (a, b, expected) -> assertEquals(expected, a + b),
+            intDatum(1, 2, 3),
+            intDatum(100, 11, 111),
+            intDatum(28, 14, 42));
+    }
+
+    @Test
+    public TestSpecs testPrimitiveLazyData() {
+        return longSpecs(
+            (value, square) -> assertEquals(square, value * value),
+            () -> IntStream.range(0, 100).mapToObj(i -> longDatum(i, (long) i * i)));
+    }
+
+    @Test
+    @DescribeAs("sqrt({0})")
+    public TestSpecs testPrimitiveDouble() {
+        return doubleSpecs(
+            (value, root) -> assertEquals(root, Math.sqrt(value), 1e-9),
+            doubleDatum(4, 2),
+            doubleDatum(2.25, 1.5));
+    }
+
+    @Test
+    @DescribeAs("{0} * {1}")
+    public TestSpecs testAllCombinations() {
+        return specs(
+            (a, b) -> assertEquals(a * b, b * a),
+            allCombinations(Arrays.asList(1, 2, 3), Arrays.asList(-1, 0, 1)));
+    }
+
+    @Test
+    @DescribeAs("{0} in {1} with {2}")
+    public TestSpecs testPairwise() {
+        return specs(
+            (value, radix, upperCase) -> {
+                String text = Integer.toString(value, radix);
+                assertEquals((int) value, Integer.parseInt(upperCase ? text.toUpperCase() : text, radix));
+            },
+            pairwise(Arrays.asList(0, 7, 255, -4096), Arrays.asList(2, 10, 16, 36), Arrays.asList(true, false)));
+    }
 }
@@ -0,0 +1,99 @@
+package org.lambdatarunner.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class CoveringArrayTest {
+
+    @Test
+    public void allCombinationsInOrder() {
+        List<String> rows = CoveringArray.allCombinations(2, 3).get()
+            .map(Arrays::toString)
+            .collect(Collectors.toList());
+        assertEquals(
+            Arrays.asList("[0, 0]", "[0, 1]", "[0, 2]", "[1, 0]", "[1, 1]", "[1, 2]"),
+            rows);
+    }
+
+    @Test
+    public void noValuesNoCombinations() {
+        assertEquals(0, CoveringArray.allCombinations(2, 0, 3).get().count());
+        assertEquals(0, CoveringArray.tWise(2, 2, 0, 3).get().count());
+    }
+
+    @Test
+    public void pairwiseCoversEveryPair() {
+        int[] sizes = { 3, 4, 2, 5, 3, 3 };
+        List<int[]> rows = CoveringArray.generate(2, sizes);
+        assertCovers(2, sizes, rows);
+        assertTrue(rows.size() + " rows", rows.size() < 40);
+    }
+
+    @Test
+    public void threeWiseCoversEveryTriple() {
+        int[] sizes = { 2, 3, 2, 4, 2 };
+        List<int[]> rows = CoveringArray.generate(3, sizes);
+        assertCovers(3, sizes, rows);
+        assertTrue(rows.size() + " rows", rows.size() < 2 * 3 * 2 * 4 * 2);
+    }
+
+    @Test
+    public void configurationMatrix() {
+        // ten parameters of between three and five values: 40,500 combinations in all
+        int[] sizes = { 5, 5, 4, 4, 3, 3, 3, 3, 3, 5 };
+        List<int[]> rows = CoveringArray.generate(2, sizes);
+        assertCovers(2, sizes, rows);
+        assertTrue(rows.size() + " rows", rows.size() < 60);
+    }
+
+    @Test
+    public void sameEachTime() {
+        assertEquals(
+            CoveringArray.tWise(2, 3, 3, 3, 3).get().map(Arrays::toString).collect(Collectors.toList()),
+            CoveringArray.tWise(2, 3, 3, 3, 3).get().map(Arrays::toString).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void strengthOfAllParametersIsAllCombinations() {
+        assertEquals(24, CoveringArray.tWise(3, 2, 3, 4).get().count());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void strengthMustBePositive() {
+        CoveringArray.tWise(0, 2, 2);
+    }
+
+    private static void assertCovers(int strength, int[] sizes, List<int[]> rows) {
+        Set<String> covered = new HashSet<>();
+        for (int[] row: rows) {
+            addTuples(strength, row, new int[strength], 0, 0, covered);
+        }
+        Set<String> expected = new HashSet<>();
+        for (int[] row: CoveringArray.allCombinations(sizes).get().collect(Collectors.toList())) {
+            addTuples(strength, row, new int[strength], 0, 0, expected);
+        }
+        assertEquals(expected, covered);
+    }
+
+    private static void addTuples(int strength, int[] row, int[] parameters, int depth, int from, Set<String> tuples) {
+        if (depth == strength) {
+            StringBuilder tuple = new StringBuilder();
+            for (int parameter: parameters) {
+                tuple.append(parameter).append('=').append(row[parameter]).append(' ');
+            }
+            tuples.add(tuple.toString());
+            return;
+        }
+        for (int parameter = from; parameter < row.length; parameter++) {
+            parameters[depth] = parameter;
+            addTuples(strength, row, parameters, depth + 1, parameter + 1, tuples);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.lambdatarunner.internal;
+
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+import java.nio.file.Paths;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class DatumAllocationsTest {
+
+    @Test
+    public void collectionsLinkedToOverlappingRuns() throws Exception {
+        DatumAllocations allocations = new DatumAllocations(Collections.emptyMap(), Paths.get("allocations"), 10);
+        allocations.overlapped("test: 1", "young", 1, 1);
+        allocations.overlapped("test: 2", "young", 2, 3);
+        allocations.overlapped("test: 3", "old", 1, 1);
+        allocations.overlapped("test: 4", "young", 3, 3);
+        allocations.collected(collection("young", 1));
+        allocations.collected(collection("young", 3));
+        allocations.collected(collection("old", 1));
+        allocations.collected(collection("young", 4));
+        String report = report(allocations);
+        assertTrue(report, report.contains("\"collections\":["
+            + "{\"collector\":\"young\",\"action\":\"end of minor GC\",\"cause\":\"Allocation Failure\",\"startMillis\":1,"
+            + "\"durationMillis\":2,\"tests\":[\"test: 1\"]},"
+            + "{\"collector\":\"young\",\"action\":\"end of minor GC\",\"cause\":\"Allocation Failure\",\"startMillis\":3,"
+            + "\"durationMillis\":2,\"tests\":[\"test: 2\",\"test: 4\"]},"
+            + "{\"collector\":\"old\",\"action\":\"end of minor GC\",\"cause\":\"Allocation Failure\",\"startMillis\":1,"
+            + "\"durationMillis\":2,\"tests\":[\"test: 3\"]},"
+            + "{\"collector\":\"young\",\"action\":\"end of minor GC\",\"cause\":\"Allocation Failure\",\"startMillis\":4,"
+            + "\"durationMillis\":2,\"tests\":[]}],"
+            + "\"droppedCollections\":0}"));
+    }
+
+    @Test
+    public void linkedRunsBounded() throws Exception {
+        DatumAllocations allocations = new DatumAllocations(Collections.emptyMap(), Paths.get("allocations"), 10);
+        for (int i = 1; i <= 12; i++) {
+            allocations.overlapped("test: " + i, "young", 1, 1);
+        }
+        for (int i = 1; i <= 1001; i++) {
+            allocations.collected(collection("young", i));
+        }
+        String report = report(allocations);
+        assertTrue(report, report.contains("\"tests\":[\"test: 1\",\"test: 2\",\"test: 3\",\"test: 4\",\"test: 5\","
+            + "\"test: 6\",\"test: 7\",\"test: 8\",\"test: 9\",\"test: 10\"],\"moreTests\":2}"));
+        assertTrue(report, report.endsWith("\"droppedCollections\":1}"));
+    }
+
+    private static DatumAllocations.Collection collection(String collector, long id) {
+        return new DatumAllocations.Collection(collector, id, "end of minor GC", "Allocation Failure", id, 2);
+    }
+
+    private static String report(DatumAllocations allocations) throws Exception {
+        StringWriter out = new StringWriter();
+        allocations.writeReport(DatumAllocationsTest.class, new JsonWriter(out));
+        return out.toString();
+    }
+}
@@ -0,0 +1,52 @@
+package org.lambdatarunner.internal;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsCoverAllValues() {
+        for (long value: new long[] { 0, 1, 31, 32, 33, 63, 64, 1000, 123456789, Long.MAX_VALUE / 3, Long.MAX_VALUE }) {
+            int bucket = LatencyHistogram.bucket(value);
+            assertTrue(value + " above lower bound", LatencyHistogram.lowerBound(bucket) <= value);
+            assertTrue(value + " below upper bound", LatencyHistogram.upperBound(bucket) >= value);
+        }
+    }
+
+    @Test
+    public void bucketsAreContiguous() {
+        for (int bucket = 0; bucket < LatencyHistogram.bucket(Long.MAX_VALUE); bucket++) {
+            assertEquals(LatencyHistogram.upperBound(bucket) + 1, LatencyHistogram.lowerBound(bucket + 1));
+        }
+    }
+
+    @Test
+    public void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000, histogram.getMin());
+        assertEquals(1000000, histogram.getMax());
+        assertEquals(500500, histogram.getMean());
+        assertWithinBucketError(500000, histogram.getPercentile(50));
+        assertWithinBucketError(990000, histogram.getPercentile(99));
+        assertEquals(1000000, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void emptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getMin());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(50));
+    }
+
+    private static void assertWithinBucketError(long expected, long actual) {
+        assertTrue("expected " + expected + " but was " + actual,
+            actual >= expected && actual <= expected + expected / LatencyHistogram.SUB_BUCKET_COUNT);
+    }
+}
@@ -0,0 +1,57 @@
+package org.lambdatarunner.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class MannWhitneyTest {
+
+    @Test
+    public void normalCdf() {
+        assertEquals(0.5, MannWhitney.normalCdf(0), 1e-7);
+        assertEquals(0.975, MannWhitney.normalCdf(1.96), 1e-4);
+        assertEquals(0.025, MannWhitney.normalCdf(-1.96), 1e-4);
+    }
+
+    @Test
+    public void separatedSamples() {
+        double[] low = { 1, 2, 3 };
+        double[] high = { 4, 5, 6 };
+        // U = 9, with mean 4.5 and variance 5.25
+        assertEquals(0.0404, MannWhitney.pGreater(high, low), 1e-4);
+        // the continuity correction is one-sided, so the converse is not its complement
+        assertEquals(0.9855, MannWhitney.pGreater(low, high), 1e-4);
+    }
+
+    @Test
+    public void tiesShareRanks() {
+        double[] same = { 5, 5, 5, 5 };
+        assertEquals(1, MannWhitney.pGreater(same, same), 0);
+        double[] sample = { 1, 2, 2, 3 };
+        double[] reference = { 2, 2, 3, 3 };
+        assertTrue(MannWhitney.pGreater(sample, reference) > 0.5);
+    }
+
+    @Test
+    public void shiftDetected() {
+        Random random = new Random(42);
+        double[] reference = new double[30];
+        double[] same = new double[30];
+        double[] shifted = new double[30];
+        for (int i = 0; i < 30; i++) {
+            reference[i] = 100 + random.nextGaussian() * 5;
+            same[i] = 100 + random.nextGaussian() * 5;
+            shifted[i] = 120 + random.nextGaussian() * 5;
+        }
+        assertTrue(MannWhitney.pGreater(same, reference) > 0.01);
+        assertTrue(MannWhitney.pGreater(shifted, reference) < 1e-6);
+        assertTrue(MannWhitney.pGreater(reference, shifted) > 0.99);
+    }
+
+    @Test
+    public void emptySample() {
+        assertEquals(1, MannWhitney.pGreater(new double[0], new double[] { 1 }), 0);
+    }
+}
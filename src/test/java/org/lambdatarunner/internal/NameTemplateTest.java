@@ -0,0 +1,84 @@
+package org.lambdatarunner.internal;
+
+import static org.junit.Assert.*;
+import static org.lambdatarunner.Lambdata.datum;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+import org.lambdatarunner.DescribeAs;
+
+public class NameTemplateTest {
+
+    @DescribeAs("{0} + {1} = {2}")
+    public void sum() {}
+
+    @DescribeAs("#{index}: {0}, not '{index}'")
+    public void indexed() {}
+
+    @DescribeAs("{0} {3}")
+    public void missing() {}
+
+    @DescribeAs("#{index}: {0} {2}")
+    public void missingIndexed() {}
+
+    @DescribeAs("{0} '{9}'")
+    public void quotedArgument() {}
+
+    @DescribeAs(value = "{0}", maxValueLength = 10)
+    public void bounded() {}
+
+    public void undescribed() {}
+
+    @Test
+    public void rendersLikeMessageFormat() throws Exception {
+        NameTemplate names = NameTemplate.of(getClass().getMethod("sum"));
+        assertTrue(names.usesDatum());
+        assertEquals("sum: 1,000 + a = null", names.render(datum(1000, "a", null), 0));
+    }
+
+    @Test
+    public void indexPlaceholder() throws Exception {
+        assertEquals("indexed: #4: x, not {index}", NameTemplate.of(getClass().getMethod("indexed")).render(datum("x"), 4));
+    }
+
+    @Test
+    public void missingValuesLeftAsPlaceholders() throws Exception {
+        assertEquals("missing: a {3}", NameTemplate.of(getClass().getMethod("missing")).render(datum("a", "b"), 0));
+        assertEquals("missingIndexed: #1,000: a {2}",
+            NameTemplate.of(getClass().getMethod("missingIndexed")).render(datum("a"), 1000));
+        assertEquals("missingIndexed: #7: a c",
+            NameTemplate.of(getClass().getMethod("missingIndexed")).render(datum("a", "b", "c"), 7));
+    }
+
+    @Test
+    public void quotedArgumentsIgnored() throws Exception {
+        assertEquals("quotedArgument: a {9}",
+            NameTemplate.of(getClass().getMethod("quotedArgument")).render(datum("a"), 0));
+    }
+
+    @Test
+    public void undescribedUsesCount() throws Exception {
+        NameTemplate names = NameTemplate.of(getClass().getMethod("undescribed"));
+        assertFalse(names.usesDatum());
+        assertEquals("undescribed: 3", names.render(null, 2));
+    }
+
+    @Test
+    public void boundedValues() throws Exception {
+        NameTemplate names = NameTemplate.of(getClass().getMethod("bounded"));
+        assertEquals("bounded: short", names.render(datum("short"), 0));
+        assertEquals("bounded: 0123456...", names.render(datum("0123456789abcdef"), 0));
+        assertEquals("bounded: [1, 2, 3]", names.render(datum(new int[] { 1, 2, 3 }), 0));
+        assertEquals("bounded: [0, 0, ...", names.render(datum(new int[1_000_000]), 0));
+        assertEquals("bounded: {k=v}", names.render(datum(Collections.singletonMap("k", "v")), 0));
+    }
+
+    @Test
+    public void renderStopsAtLimit() {
+        assertEquals("[a, b, ...", NameTemplate.renderValue(Arrays.asList("a", "b", "c", "d", "e"), 10));
+        assertEquals("[[1, 2], [3]]", NameTemplate.renderValue(new int[][] { { 1, 2 }, { 3 } }, 20));
+        assertEquals("null", NameTemplate.renderValue(null, 20));
+    }
+}
@@ -0,0 +1,78 @@
+package org.lambdatarunner.internal;
+
+import static org.junit.Assert.*;
+import static org.lambdatarunner.Lambdata.datum;
+import static org.lambdatarunner.Lambdata.specs;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+import org.lambdatarunner.Lambdata;
+import org.lambdatarunner.TestSpec;
+import org.lambdatarunner.TestSpecs;
+
+public class TestSpecCursorTest {
+
+    @Test
+    public void releasedSpecsAreNotHeld() {
+        TestSpecs testSpecs = specs((Integer i) -> {}, Collections.unmodifiableList(Arrays.asList(datum(1), datum(2))));
+        TestSpecCursor cursor = TestSpecCursor.of(testSpecs);
+        TestSpec first = cursor.get(0);
+        assertSame(first, cursor.get(0));
+        cursor.release(0);
+        try {
+            cursor.get(0);
+            fail();
+        }
+        catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("released"));
+        }
+        assertEquals(2, cursor.get(1).getDatum().values()[0]);
+    }
+
+    @Test
+    public void lazySpecsAreReadOnce() {
+        AtomicInteger streams = new AtomicInteger();
+        TestSpecs testSpecs = specs((Integer i) -> {}, () -> {
+            streams.incrementAndGet();
+            return IntStream.range(0, 3).mapToObj(Lambdata::datum);
+        });
+        try (TestSpecCursor cursor = TestSpecCursor.of(testSpecs)) {
+            for (int i = 0; i < 3; i++) {
+                assertEquals(i, cursor.get(i).getDatum().values()[0]);
+                assertEquals(i, cursor.get(i).getDatum().values()[0]);
+                cursor.release(i);
+            }
+        }
+        assertEquals(1, streams.get());
+    }
+
+    @Test
+    public void lazySpecsRereadAfterFailure() {
+        AtomicInteger streams = new AtomicInteger();
+        TestSpecs testSpecs = specs((Integer i) -> {}, () -> {
+            boolean failing = streams.incrementAndGet() == 1;
+            return IntStream.range(0, 3).mapToObj(i -> {
+                if (i == 1 && failing) {
+                    throw new IllegalStateException("unavailable");
+                }
+                return datum(i);
+            });
+        });
+        try (TestSpecCursor cursor = TestSpecCursor.of(testSpecs)) {
+            assertEquals(0, cursor.get(0).getDatum().values()[0]);
+            try {
+                cursor.get(1);
+                fail();
+            }
+            catch (IllegalStateException e) {
+                assertEquals("unavailable", e.getMessage());
+            }
+            assertEquals(2, cursor.get(2).getDatum().values()[0]);
+        }
+        assertEquals(2, streams.get());
+    }
+}